@@ -53,6 +53,12 @@ dependencies {
 
     implementation ("com.airbnb.android:lottie:6.1.0")
 
+    // Background upload of complaints queued while offline
+    implementation ("androidx.work:work-runtime:2.9.1")
+
+    // Inflating complaint cards off the main thread
+    implementation ("androidx.asynclayoutinflater:asynclayoutinflater:1.0.0")
+
 
     // Additional dependencies
     implementation("androidx.constraintlayout:constraintlayout:2.1.4")
@@ -0,0 +1,85 @@
+package com.example.projectc;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Fixed-size Bloom filter over strings. {@link #mightContain} never misses a value that was
+ * added, and reports values that were not with a small, size-dependent probability.
+ */
+public class BloomFilter {
+    private final long[] bits;
+    private final int numBits;
+    private final int numHashes;
+
+    public BloomFilter(int numBits, int numHashes) {
+        this(new long[(numBits + 63) / 64], numHashes);
+    }
+
+    private BloomFilter(long[] bits, int numHashes) {
+        this.bits = bits;
+        this.numBits = bits.length * 64;
+        this.numHashes = numHashes;
+    }
+
+    public void put(String value) {
+        int h1 = value.hashCode();
+        int h2 = fnv1a(value);
+        for (int i = 0; i < numHashes; i++) {
+            int bit = index(h1, h2, i);
+            bits[bit >>> 6] |= 1L << bit;
+        }
+    }
+
+    public boolean mightContain(String value) {
+        int h1 = value.hashCode();
+        int h2 = fnv1a(value);
+        for (int i = 0; i < numHashes; i++) {
+            int bit = index(h1, h2, i);
+            if ((bits[bit >>> 6] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public void clear() {
+        for (int i = 0; i < bits.length; i++) {
+            bits[i] = 0;
+        }
+    }
+
+    public byte[] toBytes() {
+        ByteBuffer buffer = ByteBuffer.allocate(bits.length * 8);
+        for (long word : bits) {
+            buffer.putLong(word);
+        }
+        return buffer.array();
+    }
+
+    /**
+     * Restore a filter saved with {@link #toBytes()}. The same number of hashes must be used.
+     */
+    public static BloomFilter fromBytes(byte[] bytes, int numHashes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        long[] bits = new long[bytes.length / 8];
+        for (int i = 0; i < bits.length; i++) {
+            bits[i] = buffer.getLong();
+        }
+        return new BloomFilter(bits, numHashes);
+    }
+
+    // Double hashing: the i-th probe is h1 + i * h2
+    private int index(int h1, int h2, int i) {
+        int combined = h1 + i * h2;
+        return (combined & Integer.MAX_VALUE) % numBits;
+    }
+
+    private static int fnv1a(String value) {
+        int hash = 0x811c9dc5;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x01000193;
+        }
+        return hash | 1; // Odd, so probes do not collapse onto the same bit
+    }
+}
@@ -0,0 +1,523 @@
+package com.example.projectc;
+
+import android.graphics.Bitmap;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Typeface;
+
+import androidx.annotation.Nullable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.zip.Deflater;
+
+/**
+ * Writes the PDF objects itself instead of going through PdfDocument, to keep exported files
+ * small: each bitmap is embedded once per document as an image XObject that every page
+ * references, page contents and image data are Flate-compressed, and text is set in the
+ * standard Helvetica fonts, which viewers provide, so no font is embedded.
+ *
+ * The standard fonts only cover the WinAnsi character set; check text with
+ * {@link #canEncode(String)} and use {@link PdfDocumentSurface} for anything else.
+ *
+ * Pages are written out as they are finished, and the objects they share (fonts, images,
+ * the page tree) and the cross-reference table follow in {@link #writeTo}. Given the output
+ * up front, the writer streams each page to it, so memory stays flat however many pages
+ * there are; otherwise the finished pages are held, compressed, until writeTo.
+ */
+public class CompactPdfWriter implements PdfSurface {
+
+    private static final Charset LATIN_1 = Charset.forName("ISO-8859-1");
+
+    // Advance widths in 1/1000 em of characters 32 to 126, from the fonts' Adobe AFM files
+    private static final short[] HELVETICA_WIDTHS = {
+            278, 278, 355, 556, 556, 889, 667, 191, 333, 333, 389, 584, 278, 333, 278, 278,
+            556, 556, 556, 556, 556, 556, 556, 556, 556, 556, 278, 278, 584, 584, 584, 556,
+            1015, 667, 667, 722, 722, 667, 611, 778, 722, 278, 500, 667, 556, 833, 722, 778,
+            667, 778, 722, 667, 611, 722, 667, 944, 667, 667, 611, 278, 278, 278, 469, 556,
+            333, 556, 556, 500, 556, 556, 278, 556, 556, 222, 222, 500, 222, 833, 556, 556,
+            556, 556, 333, 500, 278, 556, 500, 722, 500, 500, 500, 334, 260, 334, 584};
+    private static final short[] HELVETICA_BOLD_WIDTHS = {
+            278, 333, 474, 556, 556, 889, 722, 238, 333, 333, 389, 584, 278, 333, 278, 278,
+            556, 556, 556, 556, 556, 556, 556, 556, 556, 556, 333, 333, 584, 584, 584, 611,
+            975, 722, 722, 722, 722, 667, 611, 778, 722, 278, 556, 722, 611, 833, 722, 778,
+            667, 778, 722, 667, 611, 722, 667, 944, 667, 667, 611, 333, 278, 333, 584, 556,
+            333, 556, 611, 556, 611, 556, 333, 611, 611, 278, 278, 556, 278, 889, 611, 611,
+            611, 611, 389, 556, 333, 611, 556, 778, 556, 556, 500, 389, 280, 389, 584};
+    private static final int WIDE_WIDTH = 1000; // Em dash and ellipsis
+    private static final int OTHER_WIDTH = 556; // Remaining WinAnsi characters; close enough to wrap by
+
+    private static final String HEADER = "%PDF-1.4\n%\u00e2\u00e3\u00cf\u00d3\n";
+    // Fixed object numbers; pages take the ones after, as they finish
+    private static final int CATALOG = 1;
+    private static final int PAGE_TREE = 2;
+    private static final int RESOURCES = 3;
+    private static final int FONTS = 4; // Regular, then bold
+    private static final int FIRST_PAGE = 6;
+
+    @Nullable
+    private final OutputStream target; // Streamed to, or null to hold the pages until writeTo
+    @Nullable
+    private final ByteArrayOutputStream held; // The file so far, when not streaming
+    private CountingOutputStream pdf; // The file so far: header and finished pages
+    private long[] offsets = new long[64]; // Of each object written, by object number
+    private final List<Integer> pageObjects = new ArrayList<>(); // Each followed by its contents
+    private int nextObject = FIRST_PAGE;
+    private final Map<Bitmap, Integer> images = new IdentityHashMap<>(); // Index of each embedded bitmap
+    private final List<Bitmap> imageOrder = new ArrayList<>();
+    private final SortedSet<Integer> alphas = new TreeSet<>(); // Each needs a graphics state
+    private StringBuilder content; // Current page
+
+    /**
+     * Holds the finished pages until {@link #writeTo}.
+     */
+    public CompactPdfWriter() {
+        target = null;
+        held = new ByteArrayOutputStream();
+        pdf = new CountingOutputStream(held);
+    }
+
+    /**
+     * Writes each page to out as it is finished; {@link #writeTo} must be given the same stream.
+     */
+    public CompactPdfWriter(OutputStream out) {
+        target = out;
+        held = null;
+        pdf = new CountingOutputStream(out);
+    }
+
+    /**
+     * Whether the standard fonts can show every character of the text. Line breaks count as
+     * encodable: text is wrapped into lines before it is drawn, so they never reach the writer.
+     */
+    public static boolean canEncode(@Nullable String text) {
+        if (text == null) return true;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c != '\n' && winAnsi(c) < 0) return false;
+        }
+        return true;
+    }
+
+    @Override
+    public void startPage(int pageNumber) {
+        content = new StringBuilder(4096);
+    }
+
+    @Override
+    public void finishPage() throws IOException {
+        byte[] compressed = deflate(content.toString().getBytes(LATIN_1));
+        content = null;
+        if (pdf.count == 0) pdf.ascii(HEADER);
+        int page = nextObject;
+        nextObject += 2;
+        pageObjects.add(page);
+        mark(page);
+        pdf.ascii(page + " 0 obj\n<< /Type /Page /Parent " + PAGE_TREE + " 0 R /MediaBox [0 0 " + PdfGenerator.PAGE_WIDTH
+                + " " + PdfGenerator.PAGE_HEIGHT + "] /Resources " + RESOURCES + " 0 R /Contents " + (page + 1)
+                + " 0 R >>\nendobj\n");
+        mark(page + 1);
+        writeStream(pdf, page + 1, "", compressed);
+    }
+
+    @Override
+    public void drawRect(float left, float top, float right, float bottom, Paint paint) {
+        StringBuilder c = content;
+        int alpha = beginAlpha(paint.getAlpha());
+        boolean stroke = paint.getStyle() != Paint.Style.FILL;
+        boolean fill = paint.getStyle() != Paint.Style.STROKE;
+        if (fill) color(paint.getColor(), "rg");
+        if (stroke) {
+            color(paint.getColor(), "RG");
+            num(paint.getStrokeWidth()).append(" w ");
+        }
+        num(left).append(' ');
+        num(PdfGenerator.PAGE_HEIGHT - bottom).append(' ');
+        num(right - left).append(' ');
+        num(bottom - top).append(" re ");
+        c.append(fill && stroke ? "B" : fill ? "f" : "S").append('\n');
+        endAlpha(alpha);
+    }
+
+    @Override
+    public void drawText(String text, float x, float y, Paint paint) {
+        float width = measure(text, paint);
+        if (paint.getTextAlign() == Paint.Align.CENTER) {
+            x -= width / 2;
+        } else if (paint.getTextAlign() == Paint.Align.RIGHT) {
+            x -= width;
+        }
+        int alpha = beginAlpha(paint.getAlpha());
+        color(paint.getColor(), "rg");
+        content.append("BT ");
+        font(paint);
+        num(x).append(' ');
+        num(PdfGenerator.PAGE_HEIGHT - y).append(" Td ");
+        string(text).append(" Tj ET\n");
+        endAlpha(alpha);
+    }
+
+    @Override
+    public void drawRotatedText(String text, float x, float y, float degrees, Paint paint) {
+        // Canvas angles turn clockwise on screen; PDF's y axis points up, so they flip sign
+        double radians = Math.toRadians(-degrees);
+        float cos = (float) Math.cos(radians);
+        float sin = (float) Math.sin(radians);
+        float width = measure(text, paint);
+        float shift = paint.getTextAlign() == Paint.Align.CENTER ? width / 2
+                : paint.getTextAlign() == Paint.Align.RIGHT ? width : 0;
+        int alpha = beginAlpha(paint.getAlpha());
+        color(paint.getColor(), "rg");
+        content.append("BT ");
+        font(paint);
+        num(cos).append(' ');
+        num(sin).append(' ');
+        num(-sin).append(' ');
+        num(cos).append(' ');
+        num(x - cos * shift).append(' ');
+        num(PdfGenerator.PAGE_HEIGHT - y - sin * shift).append(" Tm ");
+        string(text).append(" Tj ET\n");
+        endAlpha(alpha);
+    }
+
+    // The bitmap is embedded the first time it is drawn and referenced after that
+    @Override
+    public void drawBitmap(Bitmap bitmap, float left, float top, @Nullable Paint paint) {
+        Integer index = images.get(bitmap);
+        if (index == null) {
+            index = imageOrder.size();
+            images.put(bitmap, index);
+            imageOrder.add(bitmap);
+        }
+        int alpha = paint != null ? paint.getAlpha() : 255;
+        StringBuilder c = content;
+        c.append("q ");
+        if (alpha < 255) {
+            alphas.add(alpha);
+            c.append("/GS").append(alpha).append(" gs ");
+        }
+        c.append(bitmap.getWidth()).append(" 0 0 ").append(bitmap.getHeight()).append(' ');
+        num(left).append(' ');
+        num(PdfGenerator.PAGE_HEIGHT - top - bitmap.getHeight()).append(" cm /Im").append(index).append(" Do Q\n");
+    }
+
+    @Override
+    public int breakText(String text, int start, int end, Paint paint, float maxWidth) {
+        boolean bold = isBold(paint);
+        float scale = paint.getTextSize() / 1000f;
+        float width = 0;
+        for (int i = start; i < end; i++) {
+            width += width(text.charAt(i), bold) * scale;
+            if (width > maxWidth) {
+                return i - start;
+            }
+        }
+        return end - start;
+    }
+
+    @Override
+    public void writeTo(OutputStream out) throws IOException {
+        if (target != null && out != target) {
+            throw new IllegalArgumentException("The pages were streamed to another output");
+        }
+        if (pdf.count == 0) pdf.ascii(HEADER);
+        if (held != null) {
+            // Copy the held pages out, then continue from where they end
+            held.writeTo(out);
+            long written = pdf.count;
+            pdf = new CountingOutputStream(out);
+            pdf.count = written;
+        }
+
+        // Graphics states, then images (each followed by its alpha mask, if any)
+        int statesStart = nextObject;
+        int[] imageObjects = new int[imageOrder.size()];
+        int next = statesStart + alphas.size();
+        for (int i = 0; i < imageOrder.size(); i++) {
+            imageObjects[i] = next;
+            next += imageOrder.get(i).hasAlpha() ? 2 : 1;
+        }
+        int objectCount = next;
+
+        int object = statesStart;
+        for (int alpha : alphas) {
+            mark(object);
+            StringBuilder state = new StringBuilder();
+            state.append(object).append(" 0 obj\n<< /Type /ExtGState /ca ");
+            appendNum(state, alpha / 255f).append(" /CA ");
+            appendNum(state, alpha / 255f).append(" >>\nendobj\n");
+            pdf.ascii(state.toString());
+            object++;
+        }
+
+        for (int i = 0; i < imageOrder.size(); i++) {
+            writeImage(imageObjects[i], imageOrder.get(i));
+        }
+
+        mark(FONTS);
+        pdf.ascii(FONTS + " 0 obj\n<< /Type /Font /Subtype /Type1 /BaseFont /Helvetica /Encoding /WinAnsiEncoding >>\nendobj\n");
+        mark(FONTS + 1);
+        pdf.ascii((FONTS + 1) + " 0 obj\n<< /Type /Font /Subtype /Type1 /BaseFont /Helvetica-Bold /Encoding /WinAnsiEncoding >>\nendobj\n");
+
+        StringBuilder resources = new StringBuilder("<< /Font << /F1 ")
+                .append(FONTS).append(" 0 R /F2 ").append(FONTS + 1).append(" 0 R >>");
+        if (!alphas.isEmpty()) {
+            resources.append(" /ExtGState <<");
+            object = statesStart;
+            for (int alpha : alphas) {
+                resources.append(" /GS").append(alpha).append(' ').append(object++).append(" 0 R");
+            }
+            resources.append(" >>");
+        }
+        if (!imageOrder.isEmpty()) {
+            resources.append(" /XObject <<");
+            for (int i = 0; i < imageObjects.length; i++) {
+                resources.append(" /Im").append(i).append(' ').append(imageObjects[i]).append(" 0 R");
+            }
+            resources.append(" >>");
+        }
+        resources.append(" >>");
+        mark(RESOURCES);
+        pdf.ascii(RESOURCES + " 0 obj\n" + resources + "\nendobj\n");
+
+        StringBuilder kids = new StringBuilder();
+        for (int page : pageObjects) {
+            kids.append(page).append(" 0 R ");
+        }
+        mark(PAGE_TREE);
+        pdf.ascii(PAGE_TREE + " 0 obj\n<< /Type /Pages /Count " + pageObjects.size() + " /Kids [ " + kids + "] >>\nendobj\n");
+
+        mark(CATALOG);
+        pdf.ascii(CATALOG + " 0 obj\n<< /Type /Catalog /Pages " + PAGE_TREE + " 0 R >>\nendobj\n");
+
+        long xref = pdf.count;
+        StringBuilder table = new StringBuilder("xref\n0 ").append(objectCount).append("\n0000000000 65535 f \n");
+        for (int i = 1; i < objectCount; i++) {
+            String offset = Long.toString(offsets[i]);
+            for (int pad = offset.length(); pad < 10; pad++) table.append('0');
+            table.append(offset).append(" 00000 n \n");
+        }
+        table.append("trailer\n<< /Size ").append(objectCount).append(" /Root ").append(CATALOG)
+                .append(" 0 R >>\nstartxref\n").append(xref).append("\n%%EOF\n");
+        pdf.ascii(table.toString());
+        pdf.flush();
+    }
+
+    @Override
+    public void close() {
+        if (held != null) held.reset();
+        pageObjects.clear();
+        images.clear();
+        imageOrder.clear();
+        content = null;
+    }
+
+    // Records where the object starts, for the cross-reference table
+    private void mark(int object) {
+        if (object >= offsets.length) {
+            offsets = Arrays.copyOf(offsets, Math.max(2 * offsets.length, object + 1));
+        }
+        offsets[object] = pdf.count;
+    }
+
+    private void writeImage(int object, Bitmap bitmap) throws IOException {
+        int width = bitmap.getWidth();
+        int height = bitmap.getHeight();
+        boolean hasAlpha = bitmap.hasAlpha();
+        byte[] rgb = new byte[width * height * 3];
+        byte[] alpha = hasAlpha ? new byte[width * height] : null;
+        int[] row = new int[width];
+        for (int y = 0; y < height; y++) {
+            bitmap.getPixels(row, 0, width, 0, y, width, 1); // Not premultiplied
+            for (int x = 0; x < width; x++) {
+                int pixel = row[x];
+                int i = y * width + x;
+                rgb[3 * i] = (byte) Color.red(pixel);
+                rgb[3 * i + 1] = (byte) Color.green(pixel);
+                rgb[3 * i + 2] = (byte) Color.blue(pixel);
+                if (alpha != null) alpha[i] = (byte) Color.alpha(pixel);
+            }
+        }
+
+        String size = " /Width " + width + " /Height " + height + " /BitsPerComponent 8";
+        mark(object);
+        writeStream(pdf, object, "/Type /XObject /Subtype /Image /ColorSpace /DeviceRGB" + size
+                + (hasAlpha ? " /SMask " + (object + 1) + " 0 R" : ""), deflate(rgb));
+        if (alpha != null) {
+            mark(object + 1);
+            writeStream(pdf, object + 1, "/Type /XObject /Subtype /Image /ColorSpace /DeviceGray" + size, deflate(alpha));
+        }
+    }
+
+    private static void writeStream(CountingOutputStream pdf, int object, String dictionary, byte[] compressed) throws IOException {
+        pdf.ascii(object + " 0 obj\n<< " + (dictionary.isEmpty() ? "" : dictionary + " ")
+                + "/Filter /FlateDecode /Length " + compressed.length + " >>\nstream\n");
+        pdf.write(compressed);
+        pdf.ascii("\nendstream\nendobj\n");
+    }
+
+    private static byte[] deflate(byte[] data) {
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            deflater.setInput(data);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 4 + 64);
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    // Sets the paint's transparency in a saved graphics state; returns the alpha for endAlpha
+    private int beginAlpha(int alpha) {
+        if (alpha < 255) {
+            alphas.add(alpha);
+            content.append("q /GS").append(alpha).append(" gs ");
+        }
+        return alpha;
+    }
+
+    private void endAlpha(int alpha) {
+        if (alpha < 255) {
+            content.append("Q\n");
+        }
+    }
+
+    private void color(int color, String operator) {
+        num(Color.red(color) / 255f).append(' ');
+        num(Color.green(color) / 255f).append(' ');
+        num(Color.blue(color) / 255f).append(' ').append(operator).append(' ');
+    }
+
+    private void font(Paint paint) {
+        content.append(isBold(paint) ? "/F2 " : "/F1 ");
+        num(paint.getTextSize()).append(" Tf ");
+    }
+
+    private StringBuilder string(String text) {
+        return appendString(content, text);
+    }
+
+    // A literal string in WinAnsiEncoding; characters it lacks become '?'
+    static StringBuilder appendString(StringBuilder sb, String text) {
+        sb.append('(');
+        for (int i = 0; i < text.length(); i++) {
+            int code = winAnsi(text.charAt(i));
+            if (code < 0) code = '?';
+            if (code == '(' || code == ')' || code == '\\') {
+                sb.append('\\').append((char) code);
+            } else if (code >= 32 && code < 127) {
+                sb.append((char) code);
+            } else {
+                sb.append('\\').append((char) ('0' + (code >> 6))).append((char) ('0' + ((code >> 3) & 7))).append((char) ('0' + (code & 7)));
+            }
+        }
+        return sb.append(')');
+    }
+
+    private StringBuilder num(float value) {
+        return appendNum(content, value);
+    }
+
+    // Up to three decimals, without exponents or locale separators
+    static StringBuilder appendNum(StringBuilder sb, float value) {
+        long thousandths = Math.round(value * 1000.0);
+        if (thousandths < 0) {
+            sb.append('-');
+            thousandths = -thousandths;
+        }
+        sb.append(thousandths / 1000);
+        int fraction = (int) (thousandths % 1000);
+        if (fraction != 0) {
+            sb.append('.');
+            if (fraction < 100) sb.append('0');
+            if (fraction < 10) sb.append('0');
+            while (fraction % 10 == 0) fraction /= 10;
+            sb.append(fraction);
+        }
+        return sb;
+    }
+
+    private float measure(String text, Paint paint) {
+        boolean bold = isBold(paint);
+        int total = 0;
+        for (int i = 0; i < text.length(); i++) {
+            total += width(text.charAt(i), bold);
+        }
+        return total * paint.getTextSize() / 1000f;
+    }
+
+    private static boolean isBold(Paint paint) {
+        Typeface typeface = paint.getTypeface();
+        return paint.isFakeBoldText() || typeface != null && typeface.isBold();
+    }
+
+    private static int width(char c, boolean bold) {
+        int code = winAnsi(c);
+        if (code < 0) code = '?';
+        if (code >= 32 && code < 127) {
+            return (bold ? HELVETICA_BOLD_WIDTHS : HELVETICA_WIDTHS)[code - 32];
+        }
+        return code == 0x85 || code == 0x97 ? WIDE_WIDTH : OTHER_WIDTH;
+    }
+
+    // The character's code in WinAnsiEncoding, or -1 if it has none
+    private static int winAnsi(char c) {
+        if (c >= 32 && c < 127 || c >= 160 && c <= 255) {
+            return c;
+        }
+        switch (c) {
+            case '\u20AC': return 0x80; // Euro
+            case '\u2026': return 0x85; // Ellipsis
+            case '\u2018': return 0x91; // Single quotes
+            case '\u2019': return 0x92;
+            case '\u201C': return 0x93; // Double quotes
+            case '\u201D': return 0x94;
+            case '\u2022': return 0x95; // Bullet
+            case '\u2013': return 0x96; // En dash
+            case '\u2014': return 0x97; // Em dash
+            case '\t':
+            case '\r': return ' ';
+            default: return -1;
+        }
+    }
+
+    // Counts what passes through: the offsets the cross-reference table needs, or a file's size
+    static class CountingOutputStream extends FilterOutputStream {
+        long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        void ascii(String text) throws IOException {
+            write(text.getBytes(LATIN_1));
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
@@ -3,6 +3,7 @@ package com.example.projectc;
 import com.google.firebase.firestore.ServerTimestamp;
 
 import java.util.Date;
+import java.util.Objects;
 
 public class Complaint {
     private String id; // Firestore Document ID (Firestore will generate this)
@@ -20,6 +21,11 @@ public class Complaint {
     @ServerTimestamp
     private Date date; // Timestamp of complaint registration
 
+    @ServerTimestamp
+    private Date updatedAt; // Timestamp of the last write, used for delta sync
+
+    private boolean deleted; // Removed by an admin; the document stays so delta sync sees the removal
+
     // No-argument constructor required for Firestore deserialization
     public Complaint() {
         // Empty constructor needed for Firestore
@@ -136,4 +142,77 @@ public class Complaint {
     public void setDate(Date date) {
         this.date = date;
     }
+
+    public Date getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(Date updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public boolean isDeleted() {
+        return deleted;
+    }
+
+    public void setDeleted(boolean deleted) {
+        this.deleted = deleted;
+    }
+
+    /**
+     * A field-by-field copy, for edits that must not touch a complaint already on screen.
+     */
+    public Complaint copy() {
+        Complaint copy = new Complaint(department, type, contactPerson, phone, email, description, priority, location);
+        copy.id = id;
+        copy.status = status;
+        copy.remarks = remarks;
+        copy.date = date;
+        copy.updatedAt = updatedAt;
+        copy.deleted = deleted;
+        return copy;
+    }
+
+    /**
+     * Hash of everything a complaint card shows. Different hashes mean the card changed; equal
+     * ones still need {@link #sameContent} to tell.
+     */
+    public int contentHash() {
+        return 31 * detailsHash() + Objects.hash(status, remarks);
+    }
+
+    /**
+     * Hash of the card's contents except status and remarks, the fields admins update.
+     */
+    public int detailsHash() {
+        return Objects.hash(department, type, contactPerson, phone, email, description, priority,
+                location, date);
+    }
+
+    /**
+     * Whether everything a complaint card shows is equal, so the card needs no rebind.
+     */
+    public boolean sameContent(Complaint other) {
+        return sameDetails(other)
+                && Objects.equals(status, other.status)
+                && Objects.equals(remarks, other.remarks);
+    }
+
+    /**
+     * Whether the card's contents are equal except status and remarks.
+     */
+    public boolean sameDetails(Complaint other) {
+        if (detailsHash() != other.detailsHash()) {
+            return false; // Cheap reject; equal hashes are checked field by field
+        }
+        return Objects.equals(department, other.department)
+                && Objects.equals(type, other.type)
+                && Objects.equals(contactPerson, other.contactPerson)
+                && Objects.equals(phone, other.phone)
+                && Objects.equals(email, other.email)
+                && Objects.equals(description, other.description)
+                && Objects.equals(priority, other.priority)
+                && Objects.equals(location, other.location)
+                && Objects.equals(date, other.date);
+    }
 }
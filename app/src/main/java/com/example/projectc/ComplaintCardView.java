@@ -0,0 +1,191 @@
+package com.example.projectc;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Typeface;
+import android.graphics.drawable.Drawable;
+import android.text.Layout;
+import android.text.StaticLayout;
+import android.text.TextPaint;
+import android.text.TextUtils;
+import android.util.AttributeSet;
+import android.util.TypedValue;
+import android.view.View;
+
+import androidx.annotation.DrawableRes;
+import androidx.annotation.Nullable;
+import androidx.core.content.ContextCompat;
+
+/**
+ * The collapsed part of a complaint card: the date with the status chip beside it, then the
+ * department and type below. Drawn directly from cached {@link StaticLayout}s, which are
+ * rebuilt only when a text or the available width changes, instead of measuring a tree of
+ * TextViews for every row.
+ */
+public class ComplaintCardView extends View {
+
+    private static final int MAX_LINES = 2;
+
+    private final TextPaint datePaint = new TextPaint(Paint.ANTI_ALIAS_FLAG);
+    private final TextPaint detailPaint = new TextPaint(Paint.ANTI_ALIAS_FLAG);
+    private final TextPaint statusPaint = new TextPaint(Paint.ANTI_ALIAS_FLAG);
+    private final int chipPaddingHorizontal;
+    private final int chipPaddingVertical;
+    private final int departmentMargin;
+    private final int typeMargin;
+
+    private String date = "";
+    private String department = "";
+    private String type = "";
+    private String status = "";
+    @DrawableRes
+    private int statusBackgroundRes;
+    private Drawable statusBackground;
+
+    // Built for layoutWidth; null until the next measure
+    private int layoutWidth = -1;
+    private StaticLayout dateLayout;
+    private StaticLayout departmentLayout;
+    private StaticLayout typeLayout;
+    private int chipWidth;
+    private int chipHeight;
+    private int chipAscent;
+
+    public ComplaintCardView(Context context) {
+        this(context, null);
+    }
+
+    public ComplaintCardView(Context context, @Nullable AttributeSet attrs) {
+        super(context, attrs);
+        // Same styles the row's TextViews used
+        datePaint.setTextSize(sp(14));
+        datePaint.setTypeface(Typeface.DEFAULT_BOLD);
+        datePaint.setColor(ContextCompat.getColor(context, R.color.blue_dark));
+        detailPaint.setTextSize(sp(13));
+        detailPaint.setColor(ContextCompat.getColor(context, R.color.gray_800));
+        statusPaint.setTextSize(sp(12));
+        statusPaint.setTypeface(Typeface.DEFAULT_BOLD);
+        statusPaint.setColor(ContextCompat.getColor(context, android.R.color.white));
+
+        chipPaddingHorizontal = dp(8);
+        chipPaddingVertical = dp(4);
+        departmentMargin = dp(8);
+        typeMargin = dp(4);
+    }
+
+    public void setContent(String date, String department, String type) {
+        if (date.equals(this.date) && department.equals(this.department) && type.equals(this.type)) {
+            return;
+        }
+        this.date = date;
+        this.department = department;
+        this.type = type;
+        invalidateLayouts();
+    }
+
+    public void setStatus(@Nullable String status, @DrawableRes int backgroundRes) {
+        String text = status != null ? status : "";
+        if (backgroundRes != statusBackgroundRes) {
+            statusBackgroundRes = backgroundRes;
+            statusBackground = ContextCompat.getDrawable(getContext(), backgroundRes);
+            invalidate();
+        }
+        if (!text.equals(this.status)) {
+            this.status = text;
+            invalidateLayouts(); // The date gets whatever width the chip leaves
+        }
+    }
+
+    private void invalidateLayouts() {
+        layoutWidth = -1;
+        requestLayout();
+        invalidate();
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        int width = MeasureSpec.getSize(widthMeasureSpec);
+        buildLayouts(Math.max(0, width - getPaddingLeft() - getPaddingRight()));
+
+        int height = getPaddingTop() + topRowHeight()
+                + departmentMargin + departmentLayout.getHeight()
+                + typeMargin + typeLayout.getHeight()
+                + getPaddingBottom();
+        setMeasuredDimension(width, resolveSize(height, heightMeasureSpec));
+    }
+
+    private void buildLayouts(int width) {
+        if (width == layoutWidth && dateLayout != null) {
+            return;
+        }
+        layoutWidth = width;
+
+        chipWidth = status.isEmpty() ? 0 : (int) Math.ceil(statusPaint.measureText(status)) + 2 * chipPaddingHorizontal;
+        Paint.FontMetricsInt metrics = statusPaint.getFontMetricsInt();
+        chipHeight = status.isEmpty() ? 0 : metrics.descent - metrics.ascent + 2 * chipPaddingVertical;
+        chipAscent = metrics.ascent;
+
+        dateLayout = layout(date, datePaint, Math.max(0, width - chipWidth), 1);
+        departmentLayout = layout(department, detailPaint, width, MAX_LINES);
+        typeLayout = layout(type, detailPaint, width, MAX_LINES);
+    }
+
+    private static StaticLayout layout(String text, TextPaint paint, int width, int maxLines) {
+        return StaticLayout.Builder.obtain(text, 0, text.length(), paint, width)
+                .setAlignment(Layout.Alignment.ALIGN_NORMAL)
+                .setIncludePad(true)
+                .setEllipsize(TextUtils.TruncateAt.END)
+                .setMaxLines(maxLines)
+                .build();
+    }
+
+    private int topRowHeight() {
+        return Math.max(dateLayout.getHeight(), chipHeight);
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        if (dateLayout == null) {
+            return;
+        }
+        int left = getPaddingLeft();
+        int top = getPaddingTop();
+
+        canvas.save();
+        canvas.translate(left, top);
+        dateLayout.draw(canvas);
+        canvas.restore();
+
+        if (chipWidth > 0) {
+            int chipRight = getWidth() - getPaddingRight();
+            int chipLeft = chipRight - chipWidth;
+            if (statusBackground != null) {
+                statusBackground.setBounds(chipLeft, top, chipRight, top + chipHeight);
+                statusBackground.draw(canvas);
+            }
+            float baseline = top + chipPaddingVertical - chipAscent;
+            canvas.drawText(status, chipLeft + chipPaddingHorizontal, baseline, statusPaint);
+        }
+
+        top += topRowHeight() + departmentMargin;
+        canvas.save();
+        canvas.translate(left, top);
+        departmentLayout.draw(canvas);
+        canvas.restore();
+
+        top += departmentLayout.getHeight() + typeMargin;
+        canvas.save();
+        canvas.translate(left, top);
+        typeLayout.draw(canvas);
+        canvas.restore();
+    }
+
+    private float sp(float value) {
+        return TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_SP, value, getResources().getDisplayMetrics());
+    }
+
+    private int dp(float value) {
+        return Math.round(TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, value, getResources().getDisplayMetrics()));
+    }
+}
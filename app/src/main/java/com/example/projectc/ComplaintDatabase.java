@@ -0,0 +1,93 @@
+package com.example.projectc;
+
+import android.content.Context;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+
+/**
+ * The app's on-device SQLite database: the complaint mirror and its per-scope sync state
+ * used by {@link ComplaintLocalStore}, and the submission outbox used by {@link ComplaintOutbox}.
+ */
+public class ComplaintDatabase extends SQLiteOpenHelper {
+    static final String COMPLAINTS = "complaints";
+    static final String OUTBOX = "outbox";
+    static final String SYNC_STATE = "sync_state";
+
+    private static final String DATABASE_NAME = "complaints.db";
+    private static final int DATABASE_VERSION = 1;
+
+    private static ComplaintDatabase instance;
+
+    public static synchronized ComplaintDatabase getInstance(Context context) {
+        if (instance == null) {
+            instance = new ComplaintDatabase(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    private ComplaintDatabase(Context context) {
+        super(context, DATABASE_NAME, null, DATABASE_VERSION);
+    }
+
+    @Override
+    public void onCreate(SQLiteDatabase db) {
+        createComplaints(db);
+        createOutbox(db);
+        createSyncState(db);
+    }
+
+    @Override
+    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        // Only one version has shipped
+    }
+
+    private static void createComplaints(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE " + COMPLAINTS + " ("
+                + "id TEXT PRIMARY KEY, "
+                + "department TEXT, "
+                + "type TEXT, "
+                + "contact_person TEXT, "
+                + "phone TEXT, "
+                + "email TEXT, "
+                + "description TEXT, "
+                + "status TEXT, "
+                + "remarks TEXT, "
+                + "priority TEXT, "
+                + "location TEXT, "
+                + "date INTEGER NOT NULL DEFAULT 0, "
+                + "updated_at INTEGER NOT NULL DEFAULT 0, "
+                + "deleted INTEGER NOT NULL DEFAULT 0)");
+        db.execSQL("CREATE INDEX idx_complaints_date ON " + COMPLAINTS + " (date DESC, id DESC)");
+        db.execSQL("CREATE INDEX idx_complaints_department ON " + COMPLAINTS + " (department, date DESC)");
+        db.execSQL("CREATE INDEX idx_complaints_email ON " + COMPLAINTS + " (email, date DESC)");
+    }
+
+    private static void createOutbox(SQLiteDatabase db) {
+        // client_key is generated on the device and becomes the Firestore document ID,
+        // so uploading the same row twice can only ever produce one complaint. duplicate
+        // marks rows the server turned away, kept until the user has been shown them.
+        db.execSQL("CREATE TABLE " + OUTBOX + " ("
+                + "client_key TEXT PRIMARY KEY, "
+                + "department TEXT, "
+                + "type TEXT, "
+                + "contact_person TEXT, "
+                + "phone TEXT, "
+                + "email TEXT, "
+                + "description TEXT, "
+                + "priority TEXT, "
+                + "location TEXT, "
+                + "created_at INTEGER NOT NULL, "
+                + "attempts INTEGER NOT NULL DEFAULT 0, "
+                + "duplicate INTEGER NOT NULL DEFAULT 0)");
+    }
+
+    private static void createSyncState(SQLiteDatabase db) {
+        // Written in the same transaction as the rows it describes. covered_from is the date
+        // (ms) down to which the scope is mirrored without gaps; complete means all of it is.
+        db.execSQL("CREATE TABLE " + SYNC_STATE + " ("
+                + "scope TEXT PRIMARY KEY, "
+                + "watermark INTEGER NOT NULL DEFAULT 0, "
+                + "covered_from INTEGER NOT NULL DEFAULT " + Long.MAX_VALUE + ", "
+                + "complete INTEGER NOT NULL DEFAULT 0)");
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.projectc;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Complaint IDs sorted by registration time in a primitive {@code long[]}, so a date range
+ * is found with two binary searches instead of a pass over every complaint. Complaints
+ * without a date (not yet stamped by the server) are not indexed.
+ *
+ * The array is kept newest first, the order pages arrive in, so indexing a page appends.
+ * Removed complaints leave an empty slot that is compacted away once slots outnumber
+ * complaints.
+ */
+public class ComplaintDateIndex {
+    private static final int MIN_COMPACT = 32; // Removed slots tolerated before compacting at all
+
+    private long[] times = new long[64]; // Descending; removed slots keep their time
+    private String[] ids = new String[64]; // Null in removed slots
+    private int slots = 0;
+    private int size = 0;
+    private final Map<String, Integer> positions = new HashMap<>();
+
+    public void put(String id, Date date) {
+        Integer current = positions.get(id);
+        if (current != null && date != null && times[current] == date.getTime()) {
+            return; // Unchanged, as for most live updates
+        }
+        remove(id);
+        if (date == null) {
+            return;
+        }
+
+        long time = date.getTime();
+        if (slots == times.length) {
+            times = Arrays.copyOf(times, slots * 2);
+            ids = Arrays.copyOf(ids, slots * 2);
+        }
+        int position = slots;
+        if (slots > 0 && time > times[slots - 1]) {
+            // Newer than the oldest; only new complaints and edited dates land here
+            position = firstBefore(time);
+            System.arraycopy(times, position, times, position + 1, slots - position);
+            System.arraycopy(ids, position, ids, position + 1, slots - position);
+            for (int i = position + 1; i <= slots; i++) {
+                if (ids[i] != null) {
+                    positions.put(ids[i], i);
+                }
+            }
+        }
+        times[position] = time;
+        ids[position] = id;
+        positions.put(id, position);
+        slots++;
+        size++;
+    }
+
+    public void remove(String id) {
+        Integer position = positions.remove(id);
+        if (position == null) {
+            return;
+        }
+        ids[position] = null;
+        size--;
+        if (slots - size > MIN_COMPACT && slots - size > size) {
+            compact();
+        }
+    }
+
+    public void clear() {
+        Arrays.fill(ids, 0, slots, null);
+        slots = 0;
+        size = 0;
+        positions.clear();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Number of complaints registered in [from, to). An estimate: removed complaints may
+     * still be counted until their slots are compacted away.
+     */
+    public int count(long from, long to) {
+        return Math.max(0, firstBefore(from) - firstBefore(to));
+    }
+
+    /**
+     * IDs of the complaints registered in [from, to), newest first.
+     */
+    public List<String> idsBetween(long from, long to) {
+        int start = firstBefore(to);
+        int end = firstBefore(from);
+        List<String> result = new ArrayList<>(Math.max(0, end - start));
+        for (int i = start; i < end; i++) {
+            if (ids[i] != null) {
+                result.add(ids[i]);
+            }
+        }
+        return result;
+    }
+
+    private void compact() {
+        int kept = 0;
+        for (int i = 0; i < slots; i++) {
+            if (ids[i] != null) {
+                times[kept] = times[i];
+                ids[kept] = ids[i];
+                positions.put(ids[kept], kept);
+                kept++;
+            }
+        }
+        Arrays.fill(ids, kept, slots, null);
+        slots = kept;
+    }
+
+    // Index of the first time < the given one, i.e. past every time at or after it
+    private int firstBefore(long time) {
+        int low = 0;
+        int high = slots;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (times[mid] >= time) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.projectc;
+
+/**
+ * Text fields of a complaint that can be searched by name, e.g. {@code status:pending}.
+ * Fields are listed from cheapest to most expensive to match: short, fixed vocabularies
+ * first, free text last.
+ */
+public enum ComplaintField {
+    STATUS(1, "status"),
+    PRIORITY(1, "priority"),
+    DEPARTMENT(1, "dept", "department"),
+    TYPE(1, "type"),
+    EMAIL(2, "email"),
+    PHONE(2, "phone"),
+    CONTACT(2, "contact", "name"),
+    LOCATION(2, "location", "loc"),
+    REMARKS(3, "remarks"),
+    DESCRIPTION(3, "description", "desc");
+
+    final int cost; // Relative cost of a substring match on this field
+    private final String[] names;
+
+    ComplaintField(int cost, String... names) {
+        this.cost = cost;
+        this.names = names;
+    }
+
+    String valueOf(Complaint complaint) {
+        switch (this) {
+            case STATUS: return complaint.getStatus();
+            case PRIORITY: return complaint.getPriority();
+            case DEPARTMENT: return complaint.getDepartment();
+            case TYPE: return complaint.getType();
+            case EMAIL: return complaint.getEmail();
+            case PHONE: return complaint.getPhone();
+            case CONTACT: return complaint.getContactPerson();
+            case LOCATION: return complaint.getLocation();
+            case REMARKS: return complaint.getRemarks();
+            default: return complaint.getDescription();
+        }
+    }
+
+    /**
+     * The field with the given query name, or null if there is none.
+     */
+    static ComplaintField forName(String name) {
+        for (ComplaintField field : values()) {
+            for (String fieldName : field.names) {
+                if (fieldName.equals(name)) {
+                    return field;
+                }
+            }
+        }
+        return null;
+    }
+}
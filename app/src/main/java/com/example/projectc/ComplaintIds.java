@@ -0,0 +1,63 @@
+package com.example.projectc;
+
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Locale;
+
+/**
+ * Derives complaint document IDs from the fields that identify a complaint, so the same
+ * complaint submitted twice (double tap, retried upload, second device) maps to the same
+ * document and can only be created once. Also keys rendered output by its content.
+ */
+public final class ComplaintIds {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private ComplaintIds() {
+    }
+
+    /**
+     * Hex SHA-256 of the normalized email, type and department.
+     */
+    public static String idFor(String email, String type, String department) {
+        return sha256(normalize(email) + '\u0000' + normalize(type) + '\u0000' + normalize(department));
+    }
+
+    /**
+     * Hex SHA-256 of the values as given, e.g. the fields a PDF shows, so that anything
+     * rendered differently gets a different key. Null counts as empty.
+     */
+    public static String digestOf(Iterable<String> values) {
+        StringBuilder key = new StringBuilder();
+        for (String value : values) {
+            key.append(value != null ? value : "").append('\u0000');
+        }
+        return sha256(key.toString());
+    }
+
+    private static String sha256(String key) {
+        byte[] digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256").digest(key.getBytes(UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e); // Guaranteed on Android
+        }
+
+        char[] hex = new char[digest.length * 2];
+        for (int i = 0; i < digest.length; i++) {
+            hex[i * 2] = HEX[(digest[i] >> 4) & 0xf];
+            hex[i * 2 + 1] = HEX[digest[i] & 0xf];
+        }
+        return new String(hex);
+    }
+
+    // Case and spacing differences should not make a complaint look new
+    static String normalize(String value) {
+        if (value == null) {
+            return "";
+        }
+        return value.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+}
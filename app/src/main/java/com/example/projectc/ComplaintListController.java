@@ -0,0 +1,297 @@
+package com.example.projectc;
+
+import android.util.Log;
+import android.view.View;
+import android.widget.TextView;
+import android.widget.Toast;
+
+import androidx.annotation.NonNull;
+import androidx.appcompat.app.AppCompatActivity;
+import androidx.appcompat.widget.SearchView;
+import androidx.lifecycle.DefaultLifecycleObserver;
+import androidx.lifecycle.LifecycleOwner;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.google.firebase.firestore.DocumentChange;
+import com.google.firebase.firestore.FirebaseFirestore;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Everything the complaint list screens share: paging a scope into the list, applying live
+ * changes and edits made from the cards, and searching what is loaded. Works on the views of
+ * {@code activity_view_complaints}; the screen only creates the adapter for its role.
+ */
+public class ComplaintListController implements DefaultLifecycleObserver {
+
+    private static final int PAGE_SIZE = 25;
+    private static final int PREFETCH_DISTANCE = 10; // Start loading the next page this many rows before the end
+
+    private final AppCompatActivity activity;
+    private final ComplaintsAdapter adapter;
+    private final RecyclerView complaintsRecyclerView;
+    private final View progressBar;
+    private final TextView noComplaintsMessage;
+    private final List<Complaint> complaintsList = new ArrayList<>(); // Complaints loaded so far
+    private final ComplaintPageSource pager;
+    private final ComplaintLiveSync liveSync; // Applies real-time changes to the loaded complaints
+    private final ComplaintSearchPipeline searchPipeline = new ComplaintSearchPipeline(this::showSearchResults); // Index built as pages load
+    private List<Complaint> searchResults = new ArrayList<>(); // Last results shown for currentQuery
+    private String currentQuery = ""; // Active search text, empty when not searching
+
+    public ComplaintListController(AppCompatActivity activity, ComplaintsAdapter adapter, ComplaintScope scope) {
+        this.activity = activity;
+        this.adapter = adapter;
+        complaintsRecyclerView = activity.findViewById(R.id.complaintsRecyclerView);
+        progressBar = activity.findViewById(R.id.progressBar);
+        noComplaintsMessage = activity.findViewById(R.id.noComplaintsMessage);
+
+        FirebaseFirestore db = FirebaseFirestore.getInstance();
+        ComplaintLocalStore store = ComplaintLocalStore.getInstance(activity);
+
+        // Mirrored pages open from the local store; older ones are fetched and mirrored as the user scrolls
+        pager = new LocalComplaintPager(store, db, scope, PAGE_SIZE);
+        liveSync = new ComplaintLiveSync(activity, db, store, scope, liveListener);
+
+        LinearLayoutManager layoutManager = new LinearLayoutManager(activity);
+        complaintsRecyclerView.setLayoutManager(layoutManager);
+        adapter.setOnComplaintChangeListener(changeListener);
+        complaintsRecyclerView.setAdapter(adapter);
+        complaintsRecyclerView.addOnScrollListener(new PaginationScrollListener(layoutManager, PREFETCH_DISTANCE) {
+            @Override
+            protected boolean isLoading() {
+                return pager.isLoading();
+            }
+
+            @Override
+            protected boolean hasMore() {
+                return pager.hasMore();
+            }
+
+            @Override
+            protected void loadMore() {
+                fetchComplaints();
+            }
+        });
+        setupSearchFunctionality(activity.findViewById(R.id.searchView));
+
+        activity.getLifecycle().addObserver(this);
+    }
+
+    /**
+     * Load the first page.
+     */
+    public void start() {
+        fetchComplaints();
+    }
+
+    @Override
+    public void onDestroy(@NonNull LifecycleOwner owner) {
+        searchPipeline.shutdown();
+        owner.getLifecycle().removeObserver(this);
+    }
+
+    /**
+     * What the list shows: every loaded complaint, or the results of the active search.
+     */
+    public List<Complaint> getShownComplaints() {
+        return currentQuery.isEmpty() ? complaintsList : searchResults;
+    }
+
+    public String getCurrentQuery() {
+        return currentQuery;
+    }
+
+    /**
+     * Show complaints from the outbox on top of the list. A row still shown as queued takes
+     * the new outbox status; one that has been loaded from Firestore is left alone.
+     */
+    public void showQueued(List<Complaint> queued) {
+        List<Complaint> added = new ArrayList<>();
+        boolean changed = false;
+        for (Complaint complaint : queued) {
+            int index = indexOf(complaintsList, complaint.getId());
+            if (index < 0) {
+                added.add(complaint);
+            } else if (ComplaintOutbox.STATUS_QUEUED.equals(complaintsList.get(index).getStatus())) {
+                complaintsList.set(index, complaint);
+                searchPipeline.put(complaint);
+                changed = true;
+            }
+        }
+        if (added.isEmpty() && !changed) {
+            return;
+        }
+
+        complaintsList.addAll(0, added);
+        searchPipeline.addAll(added);
+        refreshList();
+    }
+
+    private static int indexOf(List<Complaint> complaints, String id) {
+        for (int i = 0; i < complaints.size(); i++) {
+            if (id.equals(complaints.get(i).getId())) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void fetchComplaints() {
+        if (complaintsList.isEmpty()) {
+            progressBar.setVisibility(View.VISIBLE); // Only block the screen for the first page
+        }
+
+        pager.loadNextPage(new ComplaintPageSource.Callback() {
+            @Override
+            public void onPageLoaded(List<Complaint> page) {
+                progressBar.setVisibility(View.GONE);
+
+                List<Complaint> added = mergePage(page);
+                searchPipeline.addAll(added);
+                refreshList();
+
+                // Start receiving updates once there is something on screen to update
+                liveSync.enable();
+            }
+
+            @Override
+            public void onError(Exception e) {
+                progressBar.setVisibility(View.GONE);
+                Log.e("Firestore", "Error fetching complaints", e);
+                Toast.makeText(activity, "Error fetching complaints", Toast.LENGTH_SHORT).show();
+            }
+        });
+    }
+
+    /**
+     * Append a loaded page, skipping complaints the list already has: a row shown from the
+     * outbox is replaced by the stored complaint in place, and any other was put there by the
+     * live sync and is at least as fresh. Returns what was added or replaced.
+     */
+    private List<Complaint> mergePage(List<Complaint> page) {
+        Map<String, Integer> positions = new HashMap<>();
+        for (int i = 0; i < complaintsList.size(); i++) {
+            positions.put(complaintsList.get(i).getId(), i);
+        }
+        List<Complaint> added = new ArrayList<>(page.size());
+        for (Complaint complaint : page) {
+            Integer index = positions.get(complaint.getId());
+            if (index == null) {
+                positions.put(complaint.getId(), complaintsList.size());
+                complaintsList.add(complaint);
+                added.add(complaint);
+            } else if (isFromOutbox(complaintsList.get(index))) {
+                complaintsList.set(index, complaint);
+                added.add(complaint);
+            }
+        }
+        return added;
+    }
+
+    private static boolean isFromOutbox(Complaint complaint) {
+        return ComplaintOutbox.STATUS_QUEUED.equals(complaint.getStatus())
+                || ComplaintOutbox.STATUS_DUPLICATE.equals(complaint.getStatus());
+    }
+
+    private void updateEmptyState(boolean isEmpty) {
+        if (isEmpty) {
+            noComplaintsMessage.setVisibility(View.VISIBLE);
+            complaintsRecyclerView.setVisibility(View.GONE);
+        } else {
+            noComplaintsMessage.setVisibility(View.GONE);
+            complaintsRecyclerView.setVisibility(View.VISIBLE);
+        }
+    }
+
+    // Submit the loaded complaints again after they changed, or re-run the active search
+    private void refreshList() {
+        if (currentQuery.isEmpty()) {
+            adapter.updateList(complaintsList);
+            updateEmptyState(complaintsList.isEmpty());
+        } else {
+            filterComplaints(currentQuery, false);
+        }
+    }
+
+    private final ComplaintsAdapter.OnComplaintChangeListener changeListener = new ComplaintsAdapter.OnComplaintChangeListener() {
+        @Override
+        public void onComplaintUpdated(Complaint updated) {
+            searchPipeline.put(updated);
+            ComplaintLiveSync.applyUpdate(complaintsList, updated, pager.hasMore());
+            refreshList();
+        }
+
+        @Override
+        public void onComplaintRemoved(Complaint removed) {
+            searchPipeline.remove(removed.getId());
+            ComplaintLiveSync.applyRemoval(complaintsList, removed.getId());
+            refreshList();
+        }
+    };
+
+    private final ComplaintLiveSync.Listener liveListener = new ComplaintLiveSync.Listener() {
+        @Override
+        public void onComplaintChanges(List<DocumentChange> changes) {
+            searchPipeline.applyChanges(changes);
+            ComplaintLiveSync.applyChanges(complaintsList, changes, pager.hasMore());
+            refreshList();
+        }
+
+        @Override
+        public void onError(Exception e) {
+            // Keep showing what is loaded; the next onStart tries again
+            Log.e("Firestore", "Live updates stopped: ", e);
+        }
+    };
+
+    private void setupSearchFunctionality(SearchView searchView) {
+        searchView.setOnQueryTextListener(new SearchView.OnQueryTextListener() {
+            @Override
+            public boolean onQueryTextSubmit(String query) {
+                filterComplaints(query, false);
+                return true;
+            }
+
+            @Override
+            public boolean onQueryTextChange(String newText) {
+                filterComplaints(newText, true); // Debounced while typing
+                return true;
+            }
+        });
+    }
+
+    private void filterComplaints(String query, boolean debounce) {
+        currentQuery = query.trim();
+        if (currentQuery.isEmpty()) {
+            // Show the live list itself so changes can be applied in place
+            searchPipeline.cancel();
+            adapter.updateList(complaintsList);
+            updateEmptyState(complaintsList.isEmpty());
+            return;
+        }
+
+        if (debounce) {
+            searchPipeline.search(currentQuery);
+        } else {
+            searchPipeline.searchNow(currentQuery);
+        }
+    }
+
+    private void showSearchResults(String query, List<Complaint> filteredList) {
+        if (!query.equals(currentQuery)) {
+            return; // The search was cleared or changed since
+        }
+        searchResults = filteredList;
+
+        // If no complaints match the query, show the "No Complaints" message
+        updateEmptyState(filteredList.isEmpty());
+
+        // Update the adapter with the filtered list
+        adapter.updateList(filteredList);
+    }
+}
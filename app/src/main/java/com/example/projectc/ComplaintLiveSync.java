@@ -0,0 +1,228 @@
+package com.example.projectc;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.lifecycle.DefaultLifecycleObserver;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleOwner;
+
+import com.google.firebase.firestore.DocumentChange;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.ListenerRegistration;
+import com.google.firebase.firestore.Query;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Keeps a scope's complaints in {@link ComplaintLocalStore} and on screen up to date.
+ *
+ * While the owner is started, snapshot listeners watch only the documents written after the
+ * scope's watermark: the first snapshot is the delta since the last sync, and every later
+ * one carries just the documents that changed. Removed complaints are soft-deleted, so they
+ * arrive here as changes too. Listeners are detached in onStop. A scope gets its watermark
+ * when {@link LocalComplaintPager} mirrors its first page; until then there is nothing to
+ * keep up to date.
+ */
+public class ComplaintLiveSync implements DefaultLifecycleObserver {
+
+    public interface Listener {
+        void onComplaintChanges(List<DocumentChange> changes);
+
+        void onError(Exception e);
+    }
+
+    private final LifecycleOwner owner;
+    private final FirebaseFirestore db;
+    private final ComplaintLocalStore store;
+    private final ComplaintScope scope;
+    private final Listener listener;
+    private final List<ListenerRegistration> registrations = new ArrayList<>();
+    private boolean enabled = false;
+
+    public ComplaintLiveSync(LifecycleOwner owner, FirebaseFirestore db, ComplaintLocalStore store,
+                             ComplaintScope scope, Listener listener) {
+        this.owner = owner;
+        this.db = db;
+        this.store = store;
+        this.scope = scope;
+        this.listener = listener;
+        owner.getLifecycle().addObserver(this);
+    }
+
+    /**
+     * Turn live updates on, typically after each page is shown. Listeners are attached right
+     * away if the owner is started and the scope has been mirrored, otherwise on a later call
+     * or onStart.
+     */
+    public void enable() {
+        enabled = true;
+        if (isStarted() && store.isSynced(scope)) {
+            attach();
+        }
+    }
+
+    @Override
+    public void onStart(@NonNull LifecycleOwner owner) {
+        if (enabled && store.isSynced(scope)) {
+            attach();
+        }
+    }
+
+    @Override
+    public void onStop(@NonNull LifecycleOwner owner) {
+        detach();
+    }
+
+    @Override
+    public void onDestroy(@NonNull LifecycleOwner owner) {
+        detach();
+        owner.getLifecycle().removeObserver(this);
+    }
+
+    private boolean isStarted() {
+        return owner.getLifecycle().getCurrentState().isAtLeast(Lifecycle.State.STARTED);
+    }
+
+    private void attach() {
+        if (!registrations.isEmpty()) {
+            return;
+        }
+
+        for (Query query : scope.changedSince(db, store.getWatermark(scope))) {
+            registrations.add(query.addSnapshotListener((snapshots, e) -> {
+                if (e != null) {
+                    Log.e("ComplaintLiveSync", "Listen failed", e);
+                    listener.onError(e);
+                    return;
+                }
+                if (snapshots == null || snapshots.getDocumentChanges().isEmpty()) {
+                    return;
+                }
+
+                saveChanges(snapshots.getDocumentChanges());
+                listener.onComplaintChanges(snapshots.getDocumentChanges());
+            }));
+        }
+    }
+
+    private void detach() {
+        for (ListenerRegistration registration : registrations) {
+            registration.remove();
+        }
+        registrations.clear();
+    }
+
+    // Mirror the changes into the local store and move the watermark past them
+    private void saveChanges(List<DocumentChange> changes) {
+        List<Complaint> changed = new ArrayList<>();
+        List<String> removed = new ArrayList<>();
+        long watermark = 0;
+
+        for (DocumentChange change : changes) {
+            DocumentSnapshot document = change.getDocument();
+            if (change.getType() == DocumentChange.Type.REMOVED) {
+                removed.add(document.getId());
+                continue;
+            }
+            changed.add(toComplaint(document)); // Tombstones too, so an older copy cannot come back
+
+            // Local writes carry no server time yet; only confirmed ones may move the watermark
+            Date updatedAt = document.getDate("updatedAt");
+            if (updatedAt != null && !document.getMetadata().hasPendingWrites()) {
+                watermark = Math.max(watermark, updatedAt.getTime());
+            }
+        }
+
+        store.save(scope, changed, removed, watermark);
+    }
+
+    /**
+     * Whether the change takes the complaint off the list: the document left the query, or
+     * it is the tombstone of a complaint an admin removed.
+     */
+    static boolean isRemoval(DocumentChange change) {
+        return change.getType() == DocumentChange.Type.REMOVED
+                || Boolean.TRUE.equals(change.getDocument().getBoolean("deleted"));
+    }
+
+    static Complaint toComplaint(DocumentSnapshot document) {
+        Complaint complaint = document.toObject(Complaint.class);
+        complaint.setId(document.getId());
+        return complaint;
+    }
+
+    /**
+     * Apply snapshot deltas to a date-descending complaint list in place. While more pages
+     * remain to be loaded, complaints older than the last loaded one are left for those
+     * pages rather than inserted out of order.
+     */
+    public static void applyChanges(List<Complaint> complaints, List<DocumentChange> changes,
+                                    boolean hasMorePages) {
+        for (DocumentChange change : changes) {
+            Complaint complaint = toComplaint(change.getDocument());
+            if (isRemoval(change)) {
+                applyRemoval(complaints, complaint.getId());
+            } else {
+                applyUpdate(complaints, complaint, hasMorePages);
+            }
+        }
+    }
+
+    /**
+     * Put a new or edited complaint in its place in a date-descending list.
+     */
+    public static void applyUpdate(List<Complaint> complaints, Complaint complaint, boolean hasMorePages) {
+        int index = indexOf(complaints, complaint.getId());
+        if (index >= 0 && sameDate(complaints.get(index), complaint)) {
+            complaints.set(index, complaint);
+            return;
+        }
+        if (index >= 0) {
+            complaints.remove(index);
+        }
+        int position = insertionPoint(complaints, complaint.getDate());
+        if (position == complaints.size() && hasMorePages) {
+            return; // Belongs to a page that has not been loaded yet
+        }
+        complaints.add(position, complaint);
+    }
+
+    public static void applyRemoval(List<Complaint> complaints, String id) {
+        int index = indexOf(complaints, id);
+        if (index >= 0) {
+            complaints.remove(index);
+        }
+    }
+
+    private static int indexOf(List<Complaint> complaints, String id) {
+        for (int i = 0; i < complaints.size(); i++) {
+            if (id.equals(complaints.get(i).getId())) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean sameDate(Complaint a, Complaint b) {
+        return a.getDate() == null ? b.getDate() == null : a.getDate().equals(b.getDate());
+    }
+
+    // First position whose complaint is older than the given date; pending (null) dates go first
+    private static int insertionPoint(List<Complaint> complaints, @Nullable Date date) {
+        if (date == null) {
+            return 0;
+        }
+        for (int i = 0; i < complaints.size(); i++) {
+            Date other = complaints.get(i).getDate();
+            if (other != null && other.before(date)) {
+                return i;
+            }
+        }
+        return complaints.size();
+    }
+}
@@ -0,0 +1,305 @@
+package com.example.projectc;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * On-device SQLite mirror of the complaints collection. A scope is mirrored lazily, newest
+ * first: {@link LocalComplaintPager} saves each page it fetches from Firestore, so the mirror
+ * reaches only as far back as users have scrolled, and {@link ComplaintLiveSync} keeps what is
+ * mirrored current by fetching only the documents written after the scope's watermark.
+ *
+ * All database work runs on a single background thread, so writes and reads are applied
+ * in the order they were requested. Callbacks are delivered on the main thread.
+ */
+public class ComplaintLocalStore {
+
+    public interface Callback<T> {
+        void onResult(T result);
+    }
+
+    /**
+     * A page read from the mirror, and how far back the mirror reaches.
+     */
+    public static class Page {
+        public final List<Complaint> complaints;
+        public final long coveredFrom; // Every complaint dated at or after this (ms) is mirrored
+        public final boolean complete; // The whole scope is mirrored
+
+        Page(List<Complaint> complaints, long coveredFrom, boolean complete) {
+            this.complaints = complaints;
+            this.coveredFrom = coveredFrom;
+            this.complete = complete;
+        }
+    }
+
+    // coveredFrom of a scope nothing has been mirrored for
+    public static final long NOT_COVERED = Long.MAX_VALUE;
+
+    private static final String TABLE = ComplaintDatabase.COMPLAINTS;
+
+    private static ComplaintLocalStore instance;
+
+    private final ComplaintDatabase helper;
+    private final Map<String, Long> watermarks = new ConcurrentHashMap<>(); // Committed values by scope key
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    public static synchronized ComplaintLocalStore getInstance(Context context) {
+        if (instance == null) {
+            instance = new ComplaintLocalStore(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    private ComplaintLocalStore(Context context) {
+        helper = ComplaintDatabase.getInstance(context);
+    }
+
+    /**
+     * Server time (ms) up to which the mirrored part of the scope is known to be in sync, or
+     * 0 if nothing of it has been mirrored yet. Only ever reflects committed rows.
+     */
+    public long getWatermark(ComplaintScope scope) {
+        Long watermark = watermarks.get(scope.getKey());
+        if (watermark == null) {
+            // One indexed row, read once per scope and process
+            watermark = readState(helper.getReadableDatabase(), scope.getKey()).watermark;
+            watermarks.put(scope.getKey(), watermark);
+        }
+        return watermark;
+    }
+
+    public boolean isSynced(ComplaintScope scope) {
+        return getWatermark(scope) > 0;
+    }
+
+    /**
+     * Write the changed complaints, delete the removed ones and move the scope's watermark in
+     * one transaction, so the watermark is never ahead of the rows it vouches for. The
+     * watermark only moves forward; pass 0 to leave it. If the transaction fails nothing is
+     * kept and the next delta fetches the same changes again.
+     */
+    public void save(ComplaintScope scope, List<Complaint> changed, List<String> removedIds, long watermark) {
+        List<Complaint> changedCopy = new ArrayList<>(changed);
+        List<String> removedCopy = new ArrayList<>(removedIds);
+        write(scope, null, (db, state) -> {
+            for (Complaint complaint : changedCopy) {
+                upsert(db, complaint);
+            }
+            for (String id : removedCopy) {
+                db.delete(TABLE, "id = ?", new String[]{id});
+            }
+            state.watermark = Math.max(state.watermark, watermark);
+        });
+    }
+
+    /**
+     * Save a page fetched from Firestore and extend the scope's mirror down to it, in one
+     * transaction.
+     *
+     * @param coveredFrom every complaint of the scope dated at or after this is now mirrored
+     * @param complete    the page was the scope's last
+     * @param fetchedFrom server time (ms) the fetch started at, minus clock skew; becomes the
+     *                    watermark if the scope had none
+     * @param onDone      told on the main thread whether the transaction committed
+     */
+    public void savePage(ComplaintScope scope, List<Complaint> page, long coveredFrom, boolean complete,
+                         long fetchedFrom, Callback<Boolean> onDone) {
+        List<Complaint> copy = new ArrayList<>(page);
+        write(scope, onDone, (db, state) -> {
+            for (Complaint complaint : copy) {
+                upsert(db, complaint);
+            }
+            state.coveredFrom = Math.min(state.coveredFrom, coveredFrom);
+            state.complete |= complete;
+            if (state.watermark == 0) {
+                state.watermark = fetchedFrom;
+            }
+        });
+    }
+
+    private interface Write {
+        void apply(SQLiteDatabase db, SyncState state);
+    }
+
+    private void write(ComplaintScope scope, @Nullable Callback<Boolean> onDone, Write write) {
+        executor.execute(() -> {
+            boolean committed = commit(scope, write);
+            if (onDone != null) {
+                mainHandler.post(() -> onDone.onResult(committed));
+            }
+        });
+    }
+
+    // Runs the write and the scope's sync state update in one transaction; store thread only
+    private boolean commit(ComplaintScope scope, Write write) {
+        SQLiteDatabase db = helper.getWritableDatabase();
+        SyncState state;
+        db.beginTransaction();
+        try {
+            state = readState(db, scope.getKey());
+            write.apply(db, state);
+            ContentValues values = new ContentValues();
+            values.put("scope", scope.getKey());
+            values.put("watermark", state.watermark);
+            values.put("covered_from", state.coveredFrom);
+            values.put("complete", state.complete ? 1 : 0);
+            db.insertWithOnConflict(ComplaintDatabase.SYNC_STATE, null, values, SQLiteDatabase.CONFLICT_REPLACE);
+            db.setTransactionSuccessful();
+        } catch (Exception e) {
+            Log.e("ComplaintLocalStore", "Error saving complaints", e);
+            return false;
+        } finally {
+            db.endTransaction();
+        }
+        watermarks.put(scope.getKey(), state.watermark);
+        return true;
+    }
+
+    // Keep whichever version was written last: a page fetched before a change may be saved after it
+    private static void upsert(SQLiteDatabase db, Complaint complaint) {
+        long updatedAt = timeOf(complaint.getUpdatedAt());
+        try (Cursor cursor = db.query(TABLE, new String[]{"updated_at"}, "id = ?",
+                new String[]{complaint.getId()}, null, null, null)) {
+            if (cursor.moveToFirst() && cursor.getLong(0) > updatedAt) {
+                return;
+            }
+        }
+        db.insertWithOnConflict(TABLE, null, toValues(complaint), SQLiteDatabase.CONFLICT_REPLACE);
+    }
+
+    private static SyncState readState(SQLiteDatabase db, String scopeKey) {
+        SyncState state = new SyncState();
+        try (Cursor cursor = db.query(ComplaintDatabase.SYNC_STATE,
+                new String[]{"watermark", "covered_from", "complete"}, "scope = ?",
+                new String[]{scopeKey}, null, null, null)) {
+            if (cursor.moveToFirst()) {
+                state.watermark = cursor.getLong(0);
+                state.coveredFrom = cursor.getLong(1);
+                state.complete = cursor.getInt(2) != 0;
+            }
+        }
+        return state;
+    }
+
+    /**
+     * Load up to {@code limit} mirrored complaints of the scope, newest first, starting after
+     * the given complaint (keyset pagination on date and id). Pass null to start at the top.
+     * A page shorter than the limit means the mirror ends there, not necessarily the scope.
+     */
+    public void loadPage(ComplaintScope scope, @Nullable Complaint after, int limit, Callback<Page> callback) {
+        executor.execute(() -> {
+            List<Complaint> complaints = new ArrayList<>();
+            SyncState state = new SyncState();
+            List<String> args = new ArrayList<>();
+            StringBuilder selection = new StringBuilder("deleted = 0");
+
+            try {
+                SQLiteDatabase db = helper.getReadableDatabase();
+                state = readState(db, scope.getKey());
+
+                String scopeSelection = scope.sqlSelection();
+                if (scopeSelection != null) {
+                    selection.append(" AND (").append(scopeSelection).append(')');
+                    for (String arg : scope.sqlSelectionArgs()) {
+                        args.add(arg);
+                    }
+                }
+                if (!state.complete) {
+                    // Older rows may be here from live changes, but with gaps between them
+                    selection.append(" AND date >= ?");
+                    args.add(String.valueOf(state.coveredFrom));
+                }
+                if (after != null) {
+                    String time = String.valueOf(timeOf(after.getDate()));
+                    selection.append(" AND (date < ? OR (date = ? AND id < ?))");
+                    args.add(time);
+                    args.add(time);
+                    args.add(after.getId());
+                }
+
+                try (Cursor cursor = db.query(TABLE, null, selection.toString(),
+                        args.toArray(new String[0]), null, null,
+                        "date DESC, id DESC", String.valueOf(limit))) {
+                    while (cursor.moveToNext()) {
+                        complaints.add(fromCursor(cursor));
+                    }
+                }
+            } catch (Exception e) {
+                Log.e("ComplaintLocalStore", "Error reading complaints", e);
+            }
+            Page page = new Page(complaints, state.coveredFrom, state.complete);
+            mainHandler.post(() -> callback.onResult(page));
+        });
+    }
+
+    // A scope's row in the sync_state table
+    private static class SyncState {
+        long watermark = 0;
+        long coveredFrom = NOT_COVERED;
+        boolean complete = false;
+    }
+
+    private static ContentValues toValues(Complaint complaint) {
+        ContentValues values = new ContentValues();
+        values.put("id", complaint.getId());
+        values.put("department", complaint.getDepartment());
+        values.put("type", complaint.getType());
+        values.put("contact_person", complaint.getContactPerson());
+        values.put("phone", complaint.getPhone());
+        values.put("email", complaint.getEmail());
+        values.put("description", complaint.getDescription());
+        values.put("status", complaint.getStatus());
+        values.put("remarks", complaint.getRemarks());
+        values.put("priority", complaint.getPriority());
+        values.put("location", complaint.getLocation());
+        values.put("date", timeOf(complaint.getDate()));
+        values.put("updated_at", timeOf(complaint.getUpdatedAt()));
+        values.put("deleted", complaint.isDeleted() ? 1 : 0); // Tombstones stay, so older copies cannot return
+        return values;
+    }
+
+    private static Complaint fromCursor(Cursor cursor) {
+        Complaint complaint = new Complaint();
+        complaint.setId(cursor.getString(cursor.getColumnIndexOrThrow("id")));
+        complaint.setDepartment(cursor.getString(cursor.getColumnIndexOrThrow("department")));
+        complaint.setType(cursor.getString(cursor.getColumnIndexOrThrow("type")));
+        complaint.setContactPerson(cursor.getString(cursor.getColumnIndexOrThrow("contact_person")));
+        complaint.setPhone(cursor.getString(cursor.getColumnIndexOrThrow("phone")));
+        complaint.setEmail(cursor.getString(cursor.getColumnIndexOrThrow("email")));
+        complaint.setDescription(cursor.getString(cursor.getColumnIndexOrThrow("description")));
+        complaint.setStatus(cursor.getString(cursor.getColumnIndexOrThrow("status")));
+        complaint.setRemarks(cursor.getString(cursor.getColumnIndexOrThrow("remarks")));
+        complaint.setPriority(cursor.getString(cursor.getColumnIndexOrThrow("priority")));
+        complaint.setLocation(cursor.getString(cursor.getColumnIndexOrThrow("location")));
+        complaint.setDate(dateOf(cursor.getLong(cursor.getColumnIndexOrThrow("date"))));
+        complaint.setUpdatedAt(dateOf(cursor.getLong(cursor.getColumnIndexOrThrow("updated_at"))));
+        return complaint;
+    }
+
+    // Missing dates are stored as 0 so they sort as the oldest rows
+    private static long timeOf(@Nullable Date date) {
+        return date != null ? date.getTime() : 0;
+    }
+
+    @Nullable
+    private static Date dateOf(long time) {
+        return time != 0 ? new Date(time) : null;
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.projectc;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.WorkerThread;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Complaints submitted on this device that have not reached Firestore yet. Rows are written
+ * immediately on submit and uploaded later by {@link ComplaintUploadWorker}, so registering
+ * a complaint never waits on (or fails because of) the network.
+ */
+public class ComplaintOutbox {
+
+    public static final String STATUS_QUEUED = "Queued";
+    public static final String STATUS_DUPLICATE = "Already registered";
+
+    private static final String TABLE = ComplaintDatabase.OUTBOX;
+
+    private static ComplaintOutbox instance;
+
+    private final Context context;
+    private final ComplaintDatabase database;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    public static synchronized ComplaintOutbox getInstance(Context context) {
+        if (instance == null) {
+            instance = new ComplaintOutbox(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    private ComplaintOutbox(Context context) {
+        this.context = context;
+        this.database = ComplaintDatabase.getInstance(context);
+    }
+
+    /**
+     * Persist a new complaint and schedule its upload. The idempotency key is the
+     * complaint's deterministic ID (see {@link ComplaintIds}), which is also returned;
+     * queuing the same complaint again leaves the existing row in place.
+     */
+    public String enqueue(Complaint complaint) {
+        String clientKey = ComplaintIds.idFor(complaint.getEmail(), complaint.getType(), complaint.getDepartment());
+        ContentValues values = new ContentValues();
+        values.put("client_key", clientKey);
+        values.put("department", complaint.getDepartment());
+        values.put("type", complaint.getType());
+        values.put("contact_person", complaint.getContactPerson());
+        values.put("phone", complaint.getPhone());
+        values.put("email", complaint.getEmail());
+        values.put("description", complaint.getDescription());
+        values.put("priority", complaint.getPriority());
+        values.put("location", complaint.getLocation());
+        values.put("created_at", System.currentTimeMillis());
+
+        executor.execute(() -> {
+            database.getWritableDatabase().insertWithOnConflict(TABLE, null, values, SQLiteDatabase.CONFLICT_IGNORE);
+            ComplaintUploadWorker.schedule(context);
+        });
+        return clientKey;
+    }
+
+    /**
+     * Complaints of the given user still waiting to be uploaded, newest first, shown with
+     * the "Queued" status. Ones the upload found already registered come with the
+     * "Already registered" status, once: they leave the outbox as they are handed over.
+     */
+    public void loadQueued(String email, ComplaintLocalStore.Callback<List<Complaint>> callback) {
+        executor.execute(() -> {
+            List<Complaint> queued = read("email = ?", new String[]{email}, "created_at DESC", null);
+            List<String> duplicates = new ArrayList<>();
+            for (Complaint complaint : queued) {
+                if (complaint.getStatus().equals(STATUS_DUPLICATE)) {
+                    duplicates.add(complaint.getId());
+                } else {
+                    complaint.setStatus(STATUS_QUEUED);
+                }
+            }
+            remove(duplicates);
+            mainHandler.post(() -> callback.onResult(queued));
+        });
+    }
+
+    /**
+     * The oldest rows waiting to be uploaded. Each complaint's ID is its idempotency key.
+     */
+    @WorkerThread
+    List<Complaint> nextBatch(int limit) {
+        return read("duplicate = 0", null, "created_at ASC", String.valueOf(limit));
+    }
+
+    /**
+     * Keep rows whose complaint already exists out of later batches, until
+     * {@link #loadQueued} has shown them.
+     */
+    @WorkerThread
+    void markDuplicate(List<String> clientKeys) {
+        SQLiteDatabase db = database.getWritableDatabase();
+        for (String clientKey : clientKeys) {
+            db.execSQL("UPDATE " + TABLE + " SET duplicate = 1 WHERE client_key = ?", new Object[]{clientKey});
+        }
+    }
+
+    @WorkerThread
+    void remove(List<String> clientKeys) {
+        SQLiteDatabase db = database.getWritableDatabase();
+        db.beginTransaction();
+        try {
+            for (String clientKey : clientKeys) {
+                db.delete(TABLE, "client_key = ?", new String[]{clientKey});
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    @WorkerThread
+    void recordAttempt(List<String> clientKeys) {
+        SQLiteDatabase db = database.getWritableDatabase();
+        for (String clientKey : clientKeys) {
+            db.execSQL("UPDATE " + TABLE + " SET attempts = attempts + 1 WHERE client_key = ?",
+                    new Object[]{clientKey});
+        }
+    }
+
+    private List<Complaint> read(String selection, String[] selectionArgs, String orderBy, String limit) {
+        List<Complaint> complaints = new ArrayList<>();
+        try (Cursor cursor = database.getReadableDatabase().query(TABLE, null, selection, selectionArgs,
+                null, null, orderBy, limit)) {
+            while (cursor.moveToNext()) {
+                Complaint complaint = new Complaint(
+                        cursor.getString(cursor.getColumnIndexOrThrow("department")),
+                        cursor.getString(cursor.getColumnIndexOrThrow("type")),
+                        cursor.getString(cursor.getColumnIndexOrThrow("contact_person")),
+                        cursor.getString(cursor.getColumnIndexOrThrow("phone")),
+                        cursor.getString(cursor.getColumnIndexOrThrow("email")),
+                        cursor.getString(cursor.getColumnIndexOrThrow("description")),
+                        cursor.getString(cursor.getColumnIndexOrThrow("priority")),
+                        cursor.getString(cursor.getColumnIndexOrThrow("location")));
+                complaint.setId(cursor.getString(cursor.getColumnIndexOrThrow("client_key")));
+                complaint.setDate(new Date(cursor.getLong(cursor.getColumnIndexOrThrow("created_at"))));
+                if (cursor.getInt(cursor.getColumnIndexOrThrow("duplicate")) != 0) {
+                    complaint.setStatus(STATUS_DUPLICATE);
+                }
+                complaints.add(complaint);
+            }
+        } catch (Exception e) {
+            Log.e("ComplaintOutbox", "Error reading outbox", e);
+        }
+        return complaints;
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.projectc;
+
+import java.util.List;
+
+/**
+ * A date-ordered stream of complaints that can be read one page at a time.
+ */
+public interface ComplaintPageSource {
+
+    interface Callback {
+        void onPageLoaded(List<Complaint> page);
+
+        void onError(Exception e);
+    }
+
+    /**
+     * Fetch the next page. Calls made while a page is already loading, or after the
+     * last page has been reached, are ignored.
+     */
+    void loadNextPage(Callback callback);
+
+    boolean isLoading();
+
+    boolean hasMore();
+
+    /**
+     * Forget all cursors so the next call starts again from the first page.
+     */
+    void reset();
+}
@@ -0,0 +1,90 @@
+package com.example.projectc;
+
+import android.util.Log;
+
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QueryDocumentSnapshot;
+import com.google.firebase.firestore.QuerySnapshot;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Loads a complaints query one page at a time using limit() and startAfter() cursors,
+ * so a screen only pays for the documents the user actually scrolls to.
+ */
+public class ComplaintPager implements ComplaintPageSource {
+
+    private final Query query;
+    private final int pageSize;
+    private DocumentSnapshot lastSnapshot; // Cursor: last document of the previous page
+    private boolean loading = false;
+    private boolean exhausted = false;
+
+    public ComplaintPager(Query query, int pageSize) {
+        this.query = query;
+        this.pageSize = pageSize;
+    }
+
+    @Override
+    public void loadNextPage(Callback callback) {
+        if (loading || exhausted) {
+            return;
+        }
+        loading = true;
+
+        Query pageQuery = query.limit(pageSize);
+        if (lastSnapshot != null) {
+            pageQuery = pageQuery.startAfter(lastSnapshot);
+        }
+
+        pageQuery.get()
+                .addOnSuccessListener(snapshots -> {
+                    loading = false;
+                    callback.onPageLoaded(readPage(snapshots));
+                })
+                .addOnFailureListener(e -> {
+                    loading = false;
+                    Log.e("ComplaintPager", "Error loading page", e);
+                    callback.onError(e);
+                });
+    }
+
+    private List<Complaint> readPage(QuerySnapshot snapshots) {
+        List<Complaint> page = new ArrayList<>(snapshots.size());
+        for (QueryDocumentSnapshot document : snapshots) {
+            if (Boolean.TRUE.equals(document.getBoolean("deleted"))) {
+                continue; // Tombstone of a removed complaint
+            }
+            Complaint complaint = document.toObject(Complaint.class);
+            complaint.setId(document.getId());
+            page.add(complaint);
+        }
+
+        // A short page means there is nothing left to fetch
+        if (snapshots.size() < pageSize) {
+            exhausted = true;
+        }
+        if (!snapshots.isEmpty()) {
+            lastSnapshot = snapshots.getDocuments().get(snapshots.size() - 1);
+        }
+        return page;
+    }
+
+    @Override
+    public boolean isLoading() {
+        return loading;
+    }
+
+    @Override
+    public boolean hasMore() {
+        return !exhausted;
+    }
+
+    @Override
+    public void reset() {
+        lastSnapshot = null;
+        exhausted = false;
+    }
+}
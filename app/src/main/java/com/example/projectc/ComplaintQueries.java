@@ -0,0 +1,56 @@
+package com.example.projectc;
+
+import com.google.firebase.Timestamp;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.Query;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Builds the Firestore queries behind the complaint screens.
+ */
+public final class ComplaintQueries {
+
+    // Firestore allows at most 30 values in a single whereIn() filter
+    static final int WHERE_IN_LIMIT = 30;
+
+    private ComplaintQueries() {
+    }
+
+    /**
+     * Filters for the given departments. The department list is split into whereIn()
+     * chunks, so more than one query may be returned. An empty list yields no queries; a
+     * list containing "ALL" yields the unfiltered collection.
+     */
+    static List<Query> departmentFilters(FirebaseFirestore db, List<String> departments) {
+        List<Query> filters = new ArrayList<>();
+        if (departments.contains("ALL")) {
+            filters.add(db.collection("complaints"));
+            return filters;
+        }
+
+        for (int start = 0; start < departments.size(); start += WHERE_IN_LIMIT) {
+            List<String> chunk = departments.subList(start, Math.min(start + WHERE_IN_LIMIT, departments.size()));
+            filters.add(db.collection("complaints").whereIn("department", new ArrayList<>(chunk)));
+        }
+        return filters;
+    }
+
+    /**
+     * Newest first. Department filters require a composite index on (department ASC, date DESC).
+     */
+    static Query byDateDescending(Query filter) {
+        return filter.orderBy("date", Query.Direction.DESCENDING);
+    }
+
+    /**
+     * Documents matching the filter that were written after the watermark, oldest change
+     * first. Requires a composite index on the filtered fields plus updatedAt ASC.
+     */
+    static Query changedSince(Query filter, long watermark) {
+        return filter.whereGreaterThan("updatedAt", new Timestamp(new Date(watermark)))
+                .orderBy("updatedAt", Query.Direction.ASCENDING);
+    }
+}
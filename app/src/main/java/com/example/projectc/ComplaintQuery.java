@@ -0,0 +1,364 @@
+package com.example.projectc;
+
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.GregorianCalendar;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A parsed complaint search, compiled into clauses that are all required to match.
+ *
+ * <pre>
+ *   fan                      any field contains "fan"
+ *   "fan not working"        any field contains the phrase
+ *   status:pending           the status contains "pending" (see {@link ComplaintField} for names)
+ *   dept:"civil engineering" quoted field values may contain spaces
+ *   date:2024-05-01          that day; date:2024-05 and date:2024 cover a month or a year
+ *   date:2024-05-01..2024-05-31, date:2024-05.., date:..2024
+ *                            ranges, inclusive of both ends, open on either side
+ *   date:01/05/2024, 05/2024 day-first dd/MM/yyyy and MM/yyyy work wherever yyyy-MM-dd does
+ *   date:7d, date:today      the last 7 days including today; today only (as is date:0d)
+ *   2024-05-01, 05/2024, 2024
+ *                            a bare day, month or year (1900-2099) is a date clause too
+ * </pre>
+ *
+ * Matching is case-insensitive. Clauses are evaluated cheapest first: the date range, then
+ * short fields such as status, and free text across all fields last. Unknown field names
+ * and malformed dates are searched for as plain text.
+ */
+public final class ComplaintQuery {
+
+    private static final Pattern DATE = Pattern.compile("(\\d{4})(?:-(\\d{2})(?:-(\\d{2}))?)?");
+    private static final Pattern DAY_FIRST_DATE = Pattern.compile("(?:(\\d{1,2})/)?(\\d{1,2})/(\\d{4})");
+    // Only a plausible year is taken for a date on its own; other numbers stay plain text
+    private static final Pattern BARE_DATE = Pattern.compile("(?:19|20)\\d{2}(?:-\\d{2}(?:-\\d{2})?)?|(?:\\d{1,2}/)?\\d{1,2}/\\d{4}");
+    private static final Pattern LAST_DAYS = Pattern.compile("(\\d{1,4})d");
+
+    private final List<Clause> clauses;
+    private final List<String> terms;
+    private long dateFrom = Long.MIN_VALUE; // Intersection of all date clauses
+    private long dateTo = Long.MAX_VALUE;
+
+    private ComplaintQuery(List<Clause> clauses, List<String> terms) {
+        this.clauses = clauses;
+        this.terms = terms;
+        for (Clause clause : clauses) {
+            if (clause instanceof DateClause) {
+                dateFrom = Math.max(dateFrom, ((DateClause) clause).from);
+                dateTo = Math.min(dateTo, ((DateClause) clause).to);
+            }
+        }
+    }
+
+    public static ComplaintQuery parse(String query) {
+        List<Clause> clauses = new ArrayList<>();
+        List<String> terms = new ArrayList<>();
+
+        for (String[] token : tokenize(query)) {
+            String name = token[0];
+            String value = token[1].toLowerCase(Locale.ROOT);
+            if (value.isEmpty()) {
+                continue; // e.g. "status:" while it is still being typed
+            }
+
+            if (name == null) {
+                DateClause date = BARE_DATE.matcher(value).matches() ? DateClause.parse(value) : null;
+                if (date != null) {
+                    clauses.add(date);
+                } else {
+                    clauses.add(new TermClause(value));
+                    terms.add(value);
+                }
+            } else if (name.equals("date")) {
+                DateClause clause = DateClause.parse(value);
+                if (clause != null) {
+                    clauses.add(clause);
+                } else {
+                    clauses.add(new TermClause(name + ":" + value));
+                    terms.add(name + ":" + value);
+                }
+            } else {
+                ComplaintField field = ComplaintField.forName(name);
+                if (field != null) {
+                    clauses.add(new FieldClause(field, value));
+                } else {
+                    clauses.add(new TermClause(name + ":" + value));
+                    terms.add(name + ":" + value);
+                }
+            }
+        }
+
+        Collections.sort(clauses, new Comparator<Clause>() {
+            @Override
+            public int compare(Clause a, Clause b) {
+                return Integer.compare(a.cost(), b.cost());
+            }
+        });
+        return new ComplaintQuery(clauses, terms);
+    }
+
+    public boolean isEmpty() {
+        return clauses.isEmpty();
+    }
+
+    boolean matches(ComplaintSearchIndex.Entry entry) {
+        for (Clause clause : clauses) {
+            if (!clause.matches(entry)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    boolean hasDateRange() {
+        return dateFrom != Long.MIN_VALUE || dateTo != Long.MAX_VALUE;
+    }
+
+    /**
+     * Start (inclusive) and end (exclusive) of the dates all date clauses allow.
+     */
+    long dateFrom() {
+        return dateFrom;
+    }
+
+    long dateTo() {
+        return dateTo;
+    }
+
+    /**
+     * The free-text terms, lowercased, for looking up candidates in a text index.
+     */
+    List<String> terms() {
+        return terms;
+    }
+
+    /**
+     * Whether everything this query matches is also matched by the other one, so its
+     * results can be found by filtering the other's.
+     */
+    boolean isNarrowerThan(ComplaintQuery other) {
+        for (Clause required : other.clauses) {
+            boolean implied = false;
+            for (Clause clause : clauses) {
+                if (clause.implies(required)) {
+                    implied = true;
+                    break;
+                }
+            }
+            if (!implied) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Split into [field name or null, value] pairs; quotes group words, a missing closing quote runs to the end
+    private static List<String[]> tokenize(String query) {
+        List<String[]> tokens = new ArrayList<>();
+        int length = query.length();
+        int i = 0;
+        while (i < length) {
+            if (Character.isWhitespace(query.charAt(i))) {
+                i++;
+                continue;
+            }
+
+            String name = null;
+            int j = i;
+            while (j < length && Character.isLetter(query.charAt(j))) {
+                j++;
+            }
+            if (j > i && j < length && query.charAt(j) == ':') {
+                name = query.substring(i, j).toLowerCase(Locale.ROOT);
+                i = j + 1;
+            }
+
+            String value;
+            if (i < length && query.charAt(i) == '"') {
+                int close = query.indexOf('"', i + 1);
+                if (close < 0) {
+                    close = length;
+                }
+                value = query.substring(i + 1, close);
+                i = Math.min(close + 1, length);
+            } else {
+                j = i;
+                while (j < length && !Character.isWhitespace(query.charAt(j))) {
+                    j++;
+                }
+                value = query.substring(i, j);
+                i = j;
+            }
+            tokens.add(new String[]{name, value});
+        }
+        return tokens;
+    }
+
+    private interface Clause {
+        int cost();
+
+        boolean matches(ComplaintSearchIndex.Entry entry);
+
+        // Whether every complaint matching this clause also matches the other
+        boolean implies(Clause other);
+    }
+
+    private static class TermClause implements Clause {
+        final String text;
+
+        TermClause(String text) {
+            this.text = text;
+        }
+
+        @Override
+        public int cost() {
+            return 4;
+        }
+
+        @Override
+        public boolean matches(ComplaintSearchIndex.Entry entry) {
+            return entry.text.contains(text);
+        }
+
+        @Override
+        public boolean implies(Clause other) {
+            return other instanceof TermClause && text.contains(((TermClause) other).text);
+        }
+    }
+
+    private static class FieldClause implements Clause {
+        final ComplaintField field;
+        final String text;
+
+        FieldClause(ComplaintField field, String text) {
+            this.field = field;
+            this.text = text;
+        }
+
+        @Override
+        public int cost() {
+            return field.cost;
+        }
+
+        @Override
+        public boolean matches(ComplaintSearchIndex.Entry entry) {
+            return entry.field(field).contains(text);
+        }
+
+        @Override
+        public boolean implies(Clause other) {
+            if (other instanceof FieldClause) {
+                FieldClause required = (FieldClause) other;
+                return field == required.field && text.contains(required.text);
+            }
+            // A field containing the text means the complaint as a whole contains it
+            return other instanceof TermClause && text.contains(((TermClause) other).text);
+        }
+    }
+
+    private static class DateClause implements Clause {
+        final long from; // Inclusive
+        final long to; // Exclusive
+
+        DateClause(long from, long to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Nullable
+        static DateClause parse(String value) {
+            Matcher lastDays = LAST_DAYS.matcher(value);
+            if (value.equals("today") || lastDays.matches()) {
+                // The range always includes today, so date:0d means the same as date:1d
+                int days = lastDays.matches() ? Math.max(1, Integer.parseInt(lastDays.group(1))) : 1;
+                Calendar calendar = Calendar.getInstance();
+                calendar.set(Calendar.HOUR_OF_DAY, 0);
+                calendar.set(Calendar.MINUTE, 0);
+                calendar.set(Calendar.SECOND, 0);
+                calendar.set(Calendar.MILLISECOND, 0);
+                calendar.add(Calendar.DAY_OF_MONTH, 1 - days);
+                return new DateClause(calendar.getTimeInMillis(), Long.MAX_VALUE);
+            }
+
+            int separator = value.indexOf("..");
+            if (separator < 0) {
+                long[] period = period(value);
+                return period != null ? new DateClause(period[0], period[1]) : null;
+            }
+
+            String start = value.substring(0, separator);
+            String end = value.substring(separator + 2);
+            long[] startPeriod = start.isEmpty() ? null : period(start);
+            long[] endPeriod = end.isEmpty() ? null : period(end);
+            if ((!start.isEmpty() && startPeriod == null) || (!end.isEmpty() && endPeriod == null)) {
+                return null;
+            }
+            return new DateClause(startPeriod != null ? startPeriod[0] : Long.MIN_VALUE,
+                    endPeriod != null ? endPeriod[1] : Long.MAX_VALUE);
+        }
+
+        // Start and end (exclusive) in local time of the day, month or year written as
+        // yyyy[-MM[-dd]] or [dd/]MM/yyyy
+        @Nullable
+        private static long[] period(String value) {
+            String yearText;
+            String monthText;
+            String dayText;
+            Matcher matcher = DATE.matcher(value);
+            if (matcher.matches()) {
+                yearText = matcher.group(1);
+                monthText = matcher.group(2);
+                dayText = matcher.group(3);
+            } else {
+                matcher = DAY_FIRST_DATE.matcher(value);
+                if (!matcher.matches()) {
+                    return null;
+                }
+                dayText = matcher.group(1);
+                monthText = matcher.group(2);
+                yearText = matcher.group(3);
+            }
+            int year = Integer.parseInt(yearText);
+            int month = monthText != null ? Integer.parseInt(monthText) : 1;
+            int day = dayText != null ? Integer.parseInt(dayText) : 1;
+            int unit = dayText != null ? Calendar.DAY_OF_MONTH
+                    : monthText != null ? Calendar.MONTH : Calendar.YEAR;
+
+            GregorianCalendar calendar = new GregorianCalendar(year, month - 1, day);
+            calendar.setLenient(false);
+            try {
+                long start = calendar.getTimeInMillis();
+                calendar.add(unit, 1);
+                return new long[]{start, calendar.getTimeInMillis()};
+            } catch (IllegalArgumentException e) {
+                return null; // e.g. 2024-02-30
+            }
+        }
+
+        @Override
+        public int cost() {
+            return 0;
+        }
+
+        @Override
+        public boolean matches(ComplaintSearchIndex.Entry entry) {
+            return entry.hasDate && entry.time >= from && entry.time < to;
+        }
+
+        @Override
+        public boolean implies(Clause other) {
+            if (!(other instanceof DateClause)) {
+                return false;
+            }
+            DateClause required = (DateClause) other;
+            return from >= required.from && to <= required.to;
+        }
+    }
+}
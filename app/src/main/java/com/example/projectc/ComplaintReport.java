@@ -0,0 +1,285 @@
+package com.example.projectc;
+
+import android.content.Context;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Typeface;
+import android.os.Environment;
+
+import androidx.annotation.WorkerThread;
+
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * A multi-page PDF report of many complaints, one table row per complaint.
+ *
+ * Rows are laid out (text wrapped, height measured) in parallel on a pool sized to the CPU
+ * count, a bounded window ahead of the row being drawn. Pages are drawn strictly in order
+ * and a new one is started whenever the next row does not fit. Each finished page is
+ * streamed to the saved file by {@link CompactPdfWriter}, so only the current page and the
+ * laid-out window are held at any time, however many complaints the report covers.
+ *
+ * Text the standard PDF fonts cannot show is drawn through PdfDocument instead, which keeps
+ * every page until the file is written; such reports use memory in proportion to their length.
+ */
+public class ComplaintReport {
+
+    private static final int HEADER_HEIGHT = 70;
+    private static final int FOOTER_HEIGHT = 40;
+    private static final int COLUMN_HEADER_HEIGHT = 24;
+    private static final int CELL_PADDING = 6;
+    private static final int LINE_HEIGHT = 12;
+    private static final int MAX_ROW_LINES = 30; // Longer descriptions are cut, so a row always fits a page
+    private static final int LAYOUT_WINDOW = 64; // Rows laid out ahead of the one being drawn
+
+    private static final String[] COLUMNS = {"Date", "Department", "Type", "Status", "Description"};
+    private static final int[] COLUMN_WIDTHS = {75, 95, 85, 70, 190}; // Sum is the page width minus margins
+
+    private final String title;
+    private final Paint bandPaint = new Paint();
+    private final Paint titlePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint subtitlePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint columnHeaderPaint = new Paint();
+    private final Paint columnLabelPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint cellPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint borderPaint = new Paint();
+    private final Paint evenRowPaint = new Paint();
+    private final Paint footerPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+
+    // Each layout thread measures with its own copy of the cell paint
+    private final ThreadLocal<Paint> measurePaint = new ThreadLocal<Paint>() {
+        @Override
+        protected Paint initialValue() {
+            return new Paint(cellPaint);
+        }
+    };
+
+    private ComplaintReport(String title) {
+        this.title = title;
+        bandPaint.setColor(Color.rgb(33, 150, 243));
+        titlePaint.setColor(Color.WHITE);
+        titlePaint.setTextSize(18);
+        titlePaint.setTypeface(Typeface.create(Typeface.DEFAULT, Typeface.BOLD));
+        subtitlePaint.setColor(Color.WHITE);
+        subtitlePaint.setTextSize(11);
+        columnHeaderPaint.setColor(Color.argb(150, 207, 228, 250));
+        columnLabelPaint.setColor(Color.BLACK);
+        columnLabelPaint.setTextSize(10);
+        columnLabelPaint.setTypeface(Typeface.create(Typeface.DEFAULT, Typeface.BOLD));
+        cellPaint.setColor(Color.BLACK);
+        cellPaint.setTextSize(9);
+        borderPaint.setColor(Color.rgb(200, 200, 200));
+        borderPaint.setStyle(Paint.Style.STROKE);
+        borderPaint.setStrokeWidth(0.5f);
+        evenRowPaint.setColor(Color.argb(100, 245, 245, 245));
+        footerPaint.setColor(Color.DKGRAY);
+        footerPaint.setTextSize(9);
+        footerPaint.setTextAlign(Paint.Align.CENTER);
+    }
+
+    /**
+     * Render the complaints, in the given order, into one PDF and save it to Downloads.
+     *
+     * @param title shown on every page, e.g. the search the complaints were picked with
+     * @return the saved file's name
+     */
+    @WorkerThread
+    public static String generate(Context context, String title, List<Complaint> complaints,
+                                  PdfGenerator.ProgressListener progress) throws IOException {
+        if (!Environment.getExternalStorageState().equals(Environment.MEDIA_MOUNTED)) {
+            throw new IOException("Storage not available");
+        }
+
+        String fileName = "Complaint_Report_" +
+                new SimpleDateFormat("yyyyMMdd_HHmmss", Locale.getDefault()).format(System.currentTimeMillis()) + ".pdf";
+        ComplaintReport report = new ComplaintReport(title);
+        PdfTemplate template = PdfTemplate.getInstance(context);
+        if (canEncode(title, complaints)) {
+            // Drawn straight into the saved file; a cancel or failure part way removes it
+            PdfGenerator.savePdf(context, fileName, out -> {
+                try (CompactPdfWriter writer = new CompactPdfWriter(out)) {
+                    report.render(template, writer, complaints, progress);
+                    progress.onProgress(95);
+                    writer.writeTo(out);
+                }
+            });
+        } else {
+            try (PdfSurface surface = new PdfDocumentSurface()) {
+                report.render(template, surface, complaints, progress);
+                progress.onProgress(95);
+                PdfGenerator.savePdf(context, fileName, surface::writeTo);
+            }
+        }
+        return fileName; // No progress after the save: a cancel there would hide a saved file
+    }
+
+    // Whether every column shown can be set in the compact writer's fonts
+    private static boolean canEncode(String title, List<Complaint> complaints) {
+        if (!CompactPdfWriter.canEncode(title)) return false;
+        for (Complaint complaint : complaints) {
+            if (!CompactPdfWriter.canEncode(complaint.getDepartment())
+                    || !CompactPdfWriter.canEncode(complaint.getType())
+                    || !CompactPdfWriter.canEncode(complaint.getStatus())
+                    || !CompactPdfWriter.canEncode(complaint.getDescription())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Key of everything the report shows: the title and each complaint's columns, in order.
+     */
+    static String contentKey(String title, List<Complaint> complaints) {
+        List<String> values = new ArrayList<>(1 + complaints.size() * 6);
+        values.add(title);
+        for (Complaint complaint : complaints) {
+            values.add(complaint.getId());
+            values.add(complaint.getDate() != null ? String.valueOf(complaint.getDate().getTime()) : "");
+            values.add(complaint.getDepartment());
+            values.add(complaint.getType());
+            values.add(complaint.getStatus());
+            values.add(complaint.getDescription());
+        }
+        return ComplaintIds.digestOf(values);
+    }
+
+    // A page left open by a cancel or failure is finished when the surface is closed
+    private void render(PdfTemplate template, PdfSurface surface, List<Complaint> complaints,
+                        PdfGenerator.ProgressListener progress) throws IOException {
+        String generatedOn = "Generated on " +
+                new SimpleDateFormat("dd/MM/yyyy HH:mm", Locale.getDefault()).format(System.currentTimeMillis());
+        SimpleDateFormat dateFormat = new SimpleDateFormat("dd/MM/yyyy", Locale.getDefault());
+        int bodyBottom = PdfGenerator.PAGE_HEIGHT - FOOTER_HEIGHT;
+
+        ExecutorService layoutPool = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        ArrayDeque<Future<Row>> laidOut = new ArrayDeque<>();
+        int nextToLayOut = 0;
+        int pageNumber = 0; // Of the open page, 0 before the first
+        int y = 0;
+        try {
+            for (int i = 0; i < complaints.size(); i++) {
+                // Keep the layout pool a window ahead of drawing
+                while (nextToLayOut < complaints.size() && laidOut.size() < LAYOUT_WINDOW) {
+                    Complaint complaint = complaints.get(nextToLayOut++);
+                    String date = complaint.getDate() != null ? dateFormat.format(complaint.getDate()) : "";
+                    laidOut.add(layoutPool.submit(() -> layOut(complaint, date)));
+                }
+                Row row = await(laidOut.poll());
+
+                if (pageNumber == 0 || y + row.height > bodyBottom) {
+                    if (pageNumber > 0) {
+                        finishPage(surface, pageNumber, generatedOn);
+                    }
+                    pageNumber++;
+                    surface.startPage(pageNumber);
+                    y = drawPageHeader(template, surface, complaints.size());
+                }
+                drawRow(surface, row, y, i % 2 == 0);
+                y += row.height;
+                progress.onProgress(90 * (i + 1) / complaints.size());
+            }
+
+            if (pageNumber == 0) {
+                // No complaints: still produce a page saying so
+                pageNumber = 1;
+                surface.startPage(pageNumber);
+                y = drawPageHeader(template, surface, 0);
+                surface.drawText("No complaints", PdfGenerator.MARGIN + CELL_PADDING, y + 20, cellPaint);
+            }
+            finishPage(surface, pageNumber, generatedOn);
+        } finally {
+            layoutPool.shutdownNow();
+        }
+    }
+
+    private static Row await(Future<Row> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Report interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Could not lay out the report", e.getCause());
+        }
+    }
+
+    // Runs on the layout pool
+    private Row layOut(Complaint complaint, String date) {
+        Paint paint = measurePaint.get();
+        String[] values = {date, complaint.getDepartment(), complaint.getType(), complaint.getStatus(),
+                complaint.getDescription()};
+        List<List<String>> cells = new ArrayList<>(values.length);
+        int lines = 1;
+        for (int column = 0; column < values.length; column++) {
+            List<String> cell = PdfGenerator.wrapLines(values[column], paint, COLUMN_WIDTHS[column] - 2 * CELL_PADDING);
+            if (cell.size() > MAX_ROW_LINES) {
+                cell = new ArrayList<>(cell.subList(0, MAX_ROW_LINES));
+                cell.set(MAX_ROW_LINES - 1, cell.get(MAX_ROW_LINES - 1) + " ...");
+            }
+            cells.add(cell);
+            lines = Math.max(lines, cell.size());
+        }
+        return new Row(cells, lines * LINE_HEIGHT + 2 * CELL_PADDING);
+    }
+
+    private int drawPageHeader(PdfTemplate template, PdfSurface surface, int complaintCount) {
+        template.drawChrome(surface, false);
+        surface.drawRect(0, 0, PdfGenerator.PAGE_WIDTH, HEADER_HEIGHT, bandPaint);
+        surface.drawText("Complaint Report", PdfGenerator.MARGIN, 30, titlePaint);
+        surface.drawText(title + " (" + complaintCount + " complaints)", PdfGenerator.MARGIN, 50, subtitlePaint);
+
+        int y = HEADER_HEIGHT + 16;
+        int x = PdfGenerator.MARGIN;
+        for (int column = 0; column < COLUMNS.length; column++) {
+            surface.drawRect(x, y, x + COLUMN_WIDTHS[column], y + COLUMN_HEADER_HEIGHT, columnHeaderPaint);
+            surface.drawRect(x, y, x + COLUMN_WIDTHS[column], y + COLUMN_HEADER_HEIGHT, borderPaint);
+            surface.drawText(COLUMNS[column], x + CELL_PADDING, y + COLUMN_HEADER_HEIGHT - 8, columnLabelPaint);
+            x += COLUMN_WIDTHS[column];
+        }
+        return y + COLUMN_HEADER_HEIGHT;
+    }
+
+    private void drawRow(PdfSurface surface, Row row, int y, boolean even) {
+        int x = PdfGenerator.MARGIN;
+        for (int column = 0; column < row.cells.size(); column++) {
+            int width = COLUMN_WIDTHS[column];
+            if (even) {
+                surface.drawRect(x, y, x + width, y + row.height, evenRowPaint);
+            }
+            surface.drawRect(x, y, x + width, y + row.height, borderPaint);
+            int baseline = y + CELL_PADDING + LINE_HEIGHT - 3;
+            for (String line : row.cells.get(column)) {
+                surface.drawText(line, x + CELL_PADDING, baseline, cellPaint);
+                baseline += LINE_HEIGHT;
+            }
+            x += width;
+        }
+    }
+
+    private void finishPage(PdfSurface surface, int pageNumber, String generatedOn) throws IOException {
+        surface.drawText(generatedOn + "  -  Page " + pageNumber, PdfGenerator.PAGE_WIDTH / 2f,
+                PdfGenerator.PAGE_HEIGHT - 20, footerPaint);
+        surface.finishPage();
+    }
+
+    // One complaint's cells, wrapped into lines
+    private static class Row {
+        final List<List<String>> cells;
+        final int height;
+
+        Row(List<List<String>> cells, int height) {
+            this.cells = cells;
+            this.height = height;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.projectc;
+
+import androidx.annotation.DrawableRes;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * Everything a complaint card displays, worked out once when the complaint arrives: the
+ * labelled strings, the formatted date, the status background and which controls the
+ * viewer gets. Built off the main thread, so binding a card only sets prepared values.
+ */
+public class ComplaintRow {
+
+    // Controls the viewer gets on the card
+    static final int CONTROL_UPDATE = 1;
+    static final int CONTROL_REMOVE = 1 << 1;
+    static final int CONTROL_EXPORT = 1 << 2; // The PDF export button
+
+    final Complaint complaint;
+    final String id;
+    final int contentHash; // Quick reject only, see sameContent
+    final int controls;
+
+    final String date;
+    final String department;
+    final String type;
+    final String description;
+    final String contactPerson;
+    final String email;
+    final String phone;
+    final String location;
+    final String priority;
+    final String status;
+    @DrawableRes
+    final int statusBackground;
+    final String remarks; // Null when there are none to show
+    final String summary; // Read out for the collapsed card, which draws its own text
+
+    /**
+     * @param dateFormat used on the calling thread only, as SimpleDateFormat is not thread-safe
+     */
+    ComplaintRow(Complaint complaint, int controls, SimpleDateFormat dateFormat) {
+        this.complaint = complaint;
+        this.id = complaint.getId();
+        this.contentHash = complaint.contentHash();
+        this.controls = controls;
+
+        this.date = formatDate(complaint.getDate(), dateFormat);
+        this.department = "Department: " + complaint.getDepartment();
+        this.type = "Complaint Type: " + complaint.getType();
+        this.description = "Description: " + complaint.getDescription();
+        this.contactPerson = "Name: " + complaint.getContactPerson();
+        this.email = "Email: " + complaint.getEmail();
+        this.phone = "Phone: " + complaint.getPhone();
+        this.location = "Location: " + complaint.getLocation();
+        this.priority = "Priority: " + complaint.getPriority();
+        this.status = complaint.getStatus();
+        this.statusBackground = statusBackground(complaint.getStatus());
+        this.remarks = complaint.getRemarks() != null && !complaint.getRemarks().isEmpty() ? complaint.getRemarks() : null;
+        this.summary = date + ", " + status + ". " + department + ". " + type;
+    }
+
+    boolean has(int control) {
+        return (controls & control) != 0;
+    }
+
+    /**
+     * Whether the card would look the same as the other row's.
+     */
+    boolean sameContent(ComplaintRow other) {
+        return contentHash == other.contentHash && controls == other.controls
+                && complaint.sameContent(other.complaint);
+    }
+
+    /**
+     * Whether only the status and remarks differ from the other row, so a partial bind will do.
+     */
+    boolean differsOnlyInStatus(ComplaintRow other) {
+        return controls == other.controls && complaint.sameDetails(other.complaint);
+    }
+
+    boolean sameStatus(ComplaintRow other) {
+        return Objects.equals(status, other.status);
+    }
+
+    boolean sameRemarks(ComplaintRow other) {
+        return Objects.equals(remarks, other.remarks);
+    }
+
+    private static String formatDate(Date date, SimpleDateFormat dateFormat) {
+        if (date != null) {
+            return dateFormat.format(date);
+        }
+        return "Date not available";
+    }
+
+    @DrawableRes
+    private static int statusBackground(String status) {
+        if (status == null) {
+            return R.drawable.bg_status_default;
+        }
+        switch (status.toLowerCase(Locale.ROOT)) {
+            case "pending":
+                return R.drawable.bg_status_pending;
+            case "in progress":
+                return R.drawable.bg_status_in_progress;
+            case "resolved":
+                return R.drawable.bg_status_resolved;
+            case "closed":
+                return R.drawable.bg_status_closed;
+            default:
+                return R.drawable.bg_status_default;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.projectc;
+
+import android.text.TextUtils;
+
+import androidx.annotation.Nullable;
+
+import com.google.firebase.Timestamp;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.Query;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * The slice of the complaints collection a screen shows: everything, a set of departments,
+ * or one user's complaints. The same scope describes the Firestore queries, the delta
+ * queries and the matching rows of the local store.
+ */
+public class ComplaintScope {
+    private final String key; // Stable identifier, used to keep one sync watermark per scope
+    private final List<String> departments; // null when not filtering by department
+    private final String email; // null when not filtering by user
+
+    private ComplaintScope(String key, List<String> departments, String email) {
+        this.key = key;
+        this.departments = departments;
+        this.email = email;
+    }
+
+    public static ComplaintScope all() {
+        return new ComplaintScope("all", null, null);
+    }
+
+    public static ComplaintScope forDepartments(List<String> departments) {
+        if (departments.contains("ALL")) {
+            return all();
+        }
+        List<String> sorted = new ArrayList<>(departments);
+        Collections.sort(sorted);
+        return new ComplaintScope("departments:" + TextUtils.join("|", sorted), sorted, null);
+    }
+
+    public static ComplaintScope forEmail(String email) {
+        return new ComplaintScope("email:" + email, null, email);
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    // Unordered Firestore filters for this scope
+    private List<Query> filters(FirebaseFirestore db) {
+        if (departments != null) {
+            return ComplaintQueries.departmentFilters(db, departments);
+        }
+        List<Query> filters = new ArrayList<>();
+        if (email != null) {
+            filters.add(db.collection("complaints").whereEqualTo("email", email));
+        } else {
+            filters.add(db.collection("complaints"));
+        }
+        return filters;
+    }
+
+    /**
+     * Date-descending queries covering the scope.
+     */
+    public List<Query> queries(FirebaseFirestore db) {
+        List<Query> queries = new ArrayList<>();
+        for (Query filter : filters(db)) {
+            queries.add(ComplaintQueries.byDateDescending(filter));
+        }
+        return queries;
+    }
+
+    /**
+     * Queries for complaints in the scope written after the given watermark.
+     */
+    public List<Query> changedSince(FirebaseFirestore db, long watermark) {
+        List<Query> queries = new ArrayList<>();
+        for (Query filter : filters(db)) {
+            queries.add(ComplaintQueries.changedSince(filter, watermark));
+        }
+        return queries;
+    }
+
+    /**
+     * A single date-ordered Firestore page source over the scope's complaints dated before
+     * the given time, or over all of them if null, merging the per-query streams when the
+     * scope needs more than one query.
+     */
+    public ComplaintPageSource pager(FirebaseFirestore db, int pageSize, @Nullable Date before) {
+        List<Query> queries = new ArrayList<>();
+        for (Query query : queries(db)) {
+            queries.add(before != null ? query.startAfter(new Timestamp(before)) : query);
+        }
+        if (queries.size() == 1) {
+            return new ComplaintPager(queries.get(0), pageSize);
+        }
+
+        List<ComplaintPager> pagers = new ArrayList<>(queries.size());
+        for (Query query : queries) {
+            pagers.add(new ComplaintPager(query, pageSize));
+        }
+        return new MergedComplaintPager(pagers, pageSize);
+    }
+
+    /**
+     * SQL selection matching the scope in the local store, or null for every row.
+     */
+    String sqlSelection() {
+        if (departments != null) {
+            if (departments.isEmpty()) {
+                return "0";
+            }
+            StringBuilder selection = new StringBuilder("department IN (");
+            for (int i = 0; i < departments.size(); i++) {
+                selection.append(i == 0 ? "?" : ",?");
+            }
+            return selection.append(')').toString();
+        }
+        return email != null ? "email = ?" : null;
+    }
+
+    String[] sqlSelectionArgs() {
+        if (departments != null) {
+            return departments.toArray(new String[0]);
+        }
+        return email != null ? new String[]{email} : new String[0];
+    }
+}
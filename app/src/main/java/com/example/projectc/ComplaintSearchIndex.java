@@ -0,0 +1,173 @@
+package com.example.projectc;
+
+import com.google.firebase.firestore.DocumentChange;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Search index over the complaints a screen has loaded. Each complaint's searchable fields
+ * are lowercased and formatted once, when it is added, instead of on every keystroke.
+ *
+ * Queries are {@link ComplaintQuery} expressions. Candidates come from the date index or
+ * the trigram index, whichever is expected to return fewer for the query's date range and
+ * free-text terms; the compiled clauses are then checked against the prepared fields of
+ * each candidate.
+ *
+ * Not thread-safe; {@link ComplaintSearchPipeline} confines it to one background thread.
+ */
+public class ComplaintSearchIndex {
+
+    // Keeps a query from matching across the end of one field and the start of the next
+    private static final char FIELD_SEPARATOR = '\u0001';
+
+    /**
+     * A complaint with its searchable values prepared for matching.
+     */
+    static class Entry {
+        final Complaint complaint;
+        final String text; // All fields, lowercased and separated
+        final boolean hasDate;
+        final long time;
+        private final String[] fields = new String[ComplaintField.values().length];
+
+        Entry(Complaint complaint) {
+            this.complaint = complaint;
+            this.hasDate = complaint.getDate() != null;
+            this.time = hasDate ? complaint.getDate().getTime() : 0;
+
+            StringBuilder text = new StringBuilder();
+            for (ComplaintField field : ComplaintField.values()) {
+                String value = field.valueOf(complaint);
+                fields[field.ordinal()] = value != null ? value.toLowerCase(Locale.ROOT) : "";
+                text.append(fields[field.ordinal()]).append(FIELD_SEPARATOR);
+            }
+            this.text = text.toString();
+        }
+
+        String field(ComplaintField field) {
+            return fields[field.ordinal()];
+        }
+    }
+
+    private final NgramIndex index = new NgramIndex();
+    private final ComplaintDateIndex dateIndex = new ComplaintDateIndex();
+    private final Map<String, Entry> entries = new HashMap<>();
+
+    public void addAll(List<Complaint> page) {
+        for (Complaint complaint : page) {
+            put(complaint);
+        }
+    }
+
+    public void put(Complaint complaint) {
+        Entry entry = new Entry(complaint);
+        entries.put(complaint.getId(), entry);
+        index.put(complaint.getId(), entry.text);
+        dateIndex.put(complaint.getId(), complaint.getDate());
+    }
+
+    public void remove(String id) {
+        entries.remove(id);
+        index.remove(id);
+        dateIndex.remove(id);
+    }
+
+    public void clear() {
+        entries.clear();
+        index.clear();
+        dateIndex.clear();
+    }
+
+    /**
+     * Apply snapshot deltas, the same ones given to {@link ComplaintLiveSync#applyChanges}.
+     */
+    public void applyChanges(List<DocumentChange> changes) {
+        for (DocumentChange change : changes) {
+            if (ComplaintLiveSync.isRemoval(change)) {
+                remove(change.getDocument().getId());
+            } else {
+                put(ComplaintLiveSync.toComplaint(change.getDocument()));
+            }
+        }
+    }
+
+    /**
+     * Complaints matching the query, newest first.
+     */
+    public List<Complaint> search(ComplaintQuery query) {
+        // Start from whichever index promises the fewest candidates; both estimates are cheap
+        String term = null;
+        int termEstimate = entries.size();
+        for (String candidate : query.terms()) {
+            int estimate = index.estimateMatches(candidate);
+            if (estimate < termEstimate) {
+                term = candidate;
+                termEstimate = estimate;
+            }
+        }
+        int dateCount = query.hasDateRange()
+                ? dateIndex.count(query.dateFrom(), query.dateTo()) : entries.size();
+
+        Collection<Entry> candidates;
+        if (query.hasDateRange() && dateCount <= termEstimate) {
+            candidates = entriesFor(dateIndex.idsBetween(query.dateFrom(), query.dateTo()));
+        } else if (term != null) {
+            candidates = entriesFor(index.search(term));
+        } else {
+            candidates = entries.values();
+        }
+
+        List<Complaint> results = new ArrayList<>();
+        for (Entry entry : candidates) {
+            if (query.matches(entry)) {
+                results.add(entry.complaint);
+            }
+        }
+        Collections.sort(results, NEWEST_FIRST);
+        return results;
+    }
+
+    private List<Entry> entriesFor(List<String> ids) {
+        List<Entry> result = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            result.add(entries.get(id));
+        }
+        return result;
+    }
+
+    /**
+     * Narrow earlier results down to those matching a query that is narrower than the
+     * earlier one (see {@link ComplaintQuery#isNarrowerThan}). Order is kept.
+     */
+    public List<Complaint> refine(List<Complaint> previousResults, ComplaintQuery query) {
+        List<Complaint> results = new ArrayList<>();
+        for (Complaint complaint : previousResults) {
+            Entry entry = entries.get(complaint.getId());
+            if (entry != null && query.matches(entry)) {
+                results.add(complaint);
+            }
+        }
+        return results;
+    }
+
+    // Same order as the screens' lists: pending (null) dates first, then by date descending
+    private static final Comparator<Complaint> NEWEST_FIRST = new Comparator<Complaint>() {
+        @Override
+        public int compare(Complaint a, Complaint b) {
+            Date dateA = a.getDate();
+            Date dateB = b.getDate();
+            if (dateA == null || dateB == null) {
+                return dateA == null ? (dateB == null ? 0 : -1) : 1;
+            }
+            return dateB.compareTo(dateA);
+        }
+    };
+}
@@ -0,0 +1,144 @@
+package com.example.projectc;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import com.google.firebase.firestore.DocumentChange;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs complaint searches off the main thread. Typing is debounced, every new query
+ * supersedes the ones before it, and only the latest query's results are delivered.
+ *
+ * The {@link ComplaintSearchIndex} lives on a single background thread: index updates and
+ * searches are queued there in order, so a search always sees the pages and changes
+ * submitted before it. Results are delivered on the main thread.
+ */
+public class ComplaintSearchPipeline {
+
+    public interface Listener {
+        void onResults(String query, List<Complaint> results);
+    }
+
+    private static final long DEBOUNCE_MS = 150;
+
+    private final ComplaintSearchIndex index = new ComplaintSearchIndex();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final AtomicInteger generation = new AtomicInteger();
+    private final Listener listener;
+    private Runnable pendingSearch;
+
+    // Last completed search, reused when the next query narrows it. Background thread only.
+    private ComplaintQuery lastQuery;
+    private List<Complaint> lastResults;
+
+    public ComplaintSearchPipeline(Listener listener) {
+        this.listener = listener;
+    }
+
+    public void addAll(List<Complaint> complaints) {
+        List<Complaint> copy = new ArrayList<>(complaints);
+        execute(() -> {
+            index.addAll(copy);
+            lastQuery = null;
+        });
+    }
+
+    public void applyChanges(List<DocumentChange> changes) {
+        List<DocumentChange> copy = new ArrayList<>(changes);
+        execute(() -> {
+            index.applyChanges(copy);
+            lastQuery = null;
+        });
+    }
+
+    // A complaint edited or removed from its card
+    public void put(Complaint complaint) {
+        execute(() -> {
+            index.put(complaint);
+            lastQuery = null;
+        });
+    }
+
+    public void remove(String id) {
+        execute(() -> {
+            index.remove(id);
+            lastQuery = null;
+        });
+    }
+
+    /**
+     * Search once typing has paused for {@link #DEBOUNCE_MS}.
+     */
+    public void search(String query) {
+        cancel();
+        int searchGeneration = generation.get();
+        pendingSearch = () -> {
+            pendingSearch = null;
+            run(query, searchGeneration);
+        };
+        mainHandler.postDelayed(pendingSearch, DEBOUNCE_MS);
+    }
+
+    /**
+     * Search right away, e.g. on submit or when the loaded complaints changed.
+     */
+    public void searchNow(String query) {
+        cancel();
+        run(query, generation.get());
+    }
+
+    /**
+     * Drop the pending and running searches; none of their results will be delivered.
+     */
+    public void cancel() {
+        generation.incrementAndGet();
+        if (pendingSearch != null) {
+            mainHandler.removeCallbacks(pendingSearch);
+            pendingSearch = null;
+        }
+    }
+
+    public void shutdown() {
+        cancel();
+        executor.shutdownNow();
+    }
+
+    // Late page or snapshot callbacks may still arrive after shutdown; drop their work
+    private void execute(Runnable task) {
+        if (!executor.isShutdown()) {
+            executor.execute(task);
+        }
+    }
+
+    private void run(String query, int searchGeneration) {
+        execute(() -> {
+            if (generation.get() != searchGeneration) {
+                return; // Superseded while waiting in the queue
+            }
+
+            ComplaintQuery parsed = ComplaintQuery.parse(query);
+            List<Complaint> results;
+            if (lastQuery != null && parsed.isNarrowerThan(lastQuery)) {
+                // Typically the user kept typing: every match is among the previous results
+                results = index.refine(lastResults, parsed);
+            } else {
+                results = index.search(parsed);
+            }
+            lastQuery = parsed;
+            lastResults = results;
+
+            mainHandler.post(() -> {
+                if (generation.get() == searchGeneration) {
+                    listener.onResults(query, results);
+                }
+            });
+        });
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.projectc;
+
+import android.util.LruCache;
+import android.widget.TextView;
+
+import androidx.annotation.Nullable;
+import androidx.core.text.PrecomputedTextCompat;
+import androidx.core.widget.TextViewCompat;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Complaint descriptions and remarks measured and broken into lines ahead of time with
+ * {@link PrecomputedTextCompat}, so long text is not laid out on the main thread when a card
+ * is bound or expanded. Entries are keyed by complaint ID and only used while the
+ * complaint's text is still the text they measured.
+ *
+ * Text can only be precomputed once the style of the card's TextViews is known, so nothing
+ * is measured until {@link #setParams} has been called. After that, the rows around the
+ * one being bound are measured, so the window follows the user through the list.
+ */
+public class ComplaintTextCache {
+
+    private static final int MAX_ENTRIES = 200;
+    private static final int PREFETCH_DISTANCE = 30; // Rows measured on each side of the bound one
+    private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor();
+
+    private final LruCache<String, Entry> entries = new LruCache<>(MAX_ENTRIES);
+    private final AtomicInteger generation = new AtomicInteger();
+    private volatile PrecomputedTextCompat.Params descriptionParams;
+    private volatile PrecomputedTextCompat.Params remarkParams;
+    // The last window requested; main thread only
+    private List<ComplaintRow> prefetchedRows;
+    private int prefetchedFrom;
+    private int prefetchedTo;
+
+    public boolean hasParams() {
+        return descriptionParams != null;
+    }
+
+    /**
+     * Take the text style from a card's description and remark views.
+     */
+    public void setParams(TextView descriptionView, TextView remarkView) {
+        remarkParams = TextViewCompat.getTextMetricsParams(remarkView);
+        descriptionParams = TextViewCompat.getTextMetricsParams(descriptionView);
+    }
+
+    /**
+     * Measure the text of the rows around position in the background, replacing any earlier
+     * prefetch. Called for every bind; does nothing while the position stays well inside the
+     * window last requested for the same list.
+     */
+    public void prefetchAround(List<ComplaintRow> rows, int position) {
+        if (!hasParams()) {
+            return;
+        }
+        if (rows == prefetchedRows
+                && (prefetchedFrom == 0 || position - prefetchedFrom >= PREFETCH_DISTANCE / 2)
+                && (prefetchedTo == rows.size() || prefetchedTo - position >= PREFETCH_DISTANCE / 2)) {
+            return;
+        }
+        int from = Math.max(0, position - PREFETCH_DISTANCE);
+        int to = Math.min(rows.size(), position + PREFETCH_DISTANCE);
+        prefetchedRows = rows;
+        prefetchedFrom = from;
+        prefetchedTo = to;
+
+        int prefetchGeneration = generation.incrementAndGet();
+        EXECUTOR.execute(() -> {
+            // Nearest first: the rows ahead of the bound one, then the ones behind it
+            for (int i = Math.max(from, position); i < to; i++) {
+                if (!measure(rows.get(i), prefetchGeneration)) {
+                    return;
+                }
+            }
+            for (int i = Math.min(position, to) - 1; i >= from; i--) {
+                if (!measure(rows.get(i), prefetchGeneration)) {
+                    return;
+                }
+            }
+        });
+    }
+
+    // Executor thread. False once a newer prefetch has replaced this one.
+    private boolean measure(ComplaintRow row, int prefetchGeneration) {
+        if (generation.get() != prefetchGeneration) {
+            return false;
+        }
+        Entry entry = entries.get(row.id);
+        if (entry == null || !entry.matches(row)) {
+            entries.put(row.id, new Entry(row, descriptionParams, remarkParams));
+        }
+        return true;
+    }
+
+    @Nullable
+    public PrecomputedTextCompat description(ComplaintRow row) {
+        Entry entry = entries.get(row.id);
+        return entry != null && entry.matches(row) ? entry.description : null;
+    }
+
+    @Nullable
+    public PrecomputedTextCompat remarks(ComplaintRow row) {
+        Entry entry = entries.get(row.id);
+        return entry != null && entry.matches(row) ? entry.remarks : null;
+    }
+
+    private static class Entry {
+        final String descriptionText;
+        final String remarksText;
+        final PrecomputedTextCompat description;
+        final PrecomputedTextCompat remarks; // Null when there are none
+
+        Entry(ComplaintRow row, PrecomputedTextCompat.Params descriptionParams,
+              PrecomputedTextCompat.Params remarkParams) {
+            this.descriptionText = row.description;
+            this.remarksText = row.remarks;
+            this.description = PrecomputedTextCompat.create(row.description, descriptionParams);
+            this.remarks = row.remarks != null ? PrecomputedTextCompat.create(row.remarks, remarkParams) : null;
+        }
+
+        // Other fields of the complaint may change without touching the measured text
+        boolean matches(ComplaintRow row) {
+            return Objects.equals(descriptionText, row.description) && Objects.equals(remarksText, row.remarks);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.projectc;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.LiveData;
+import androidx.work.BackoffPolicy;
+import androidx.work.Constraints;
+import androidx.work.ExistingWorkPolicy;
+import androidx.work.NetworkType;
+import androidx.work.OneTimeWorkRequest;
+import androidx.work.WorkInfo;
+import androidx.work.WorkManager;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Uploads the {@link ComplaintOutbox} in batched writes once the device is online.
+ *
+ * Every complaint is created at the document named after its deterministic ID, inside a
+ * transaction that skips documents which already exist, unless an admin removed them. A
+ * complaint that was registered before, or a batch whose acknowledgement was lost, is
+ * therefore never written twice. A document holding exactly what the row holds was written
+ * by an earlier attempt and counts as uploaded; the outbox marks the other existing ones
+ * so the user can be told.
+ * Failed runs are retried with exponential backoff.
+ */
+public class ComplaintUploadWorker extends Worker {
+
+    private static final String WORK_NAME = "complaint-upload";
+    private static final int BATCH_SIZE = 20; // Well below the 500-document transaction limit
+    private static final long TIMEOUT_SECONDS = 30;
+
+    public ComplaintUploadWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+    }
+
+    /**
+     * Make sure an upload runs once the network is available. Safe to call for every
+     * queued complaint: requests are chained onto the one already scheduled.
+     */
+    public static void schedule(Context context) {
+        WorkManager.getInstance(context)
+                .enqueueUniqueWork(WORK_NAME, ExistingWorkPolicy.APPEND_OR_REPLACE, request());
+    }
+
+    /**
+     * The scheduled and finished upload runs, for screens that show the outbox.
+     */
+    public static LiveData<List<WorkInfo>> runs(Context context) {
+        return WorkManager.getInstance(context).getWorkInfosForUniqueWorkLiveData(WORK_NAME);
+    }
+
+    private static OneTimeWorkRequest request() {
+        Constraints constraints = new Constraints.Builder()
+                .setRequiredNetworkType(NetworkType.CONNECTED)
+                .build();
+        return new OneTimeWorkRequest.Builder(ComplaintUploadWorker.class)
+                .setConstraints(constraints)
+                .setBackoffCriteria(BackoffPolicy.EXPONENTIAL, 30, TimeUnit.SECONDS)
+                .build();
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        ComplaintOutbox outbox = ComplaintOutbox.getInstance(getApplicationContext());
+        FirebaseFirestore db = FirebaseFirestore.getInstance();
+
+        List<Complaint> batch;
+        while (!(batch = outbox.nextBatch(BATCH_SIZE)).isEmpty()) {
+            List<String> keys = new ArrayList<>(batch.size());
+            for (Complaint complaint : batch) {
+                keys.add(complaint.getId());
+            }
+
+            List<String> duplicates;
+            try {
+                duplicates = upload(db, batch);
+            } catch (Exception e) {
+                Log.e("ComplaintUploadWorker", "Upload failed, will retry", e);
+                outbox.recordAttempt(keys);
+                return Result.retry();
+            }
+            keys.removeAll(duplicates);
+            outbox.remove(keys);
+            outbox.markDuplicate(duplicates);
+        }
+        return Result.success();
+    }
+
+    // Create every complaint of the batch whose document does not exist yet, or only as an
+    // admin's tombstone, in one transaction. Returns the IDs of the ones registered before,
+    // by another submission.
+    private List<String> upload(FirebaseFirestore db, List<Complaint> batch) throws Exception {
+        Map<DocumentReference, Complaint> documents = new LinkedHashMap<>();
+        for (Complaint complaint : batch) {
+            DocumentReference reference = db.collection("complaints").document(complaint.getId());
+            // Leave id out of the document and let the server stamp date and updatedAt
+            complaint.setId(null);
+            complaint.setDate(null);
+            documents.put(reference, complaint);
+        }
+
+        List<String> duplicates = Tasks.await(db.runTransaction(transaction -> {
+            // All reads come before any write, as transactions require
+            List<DocumentReference> absent = new ArrayList<>();
+            List<String> existing = new ArrayList<>();
+            for (DocumentReference reference : documents.keySet()) {
+                DocumentSnapshot snapshot = transaction.get(reference);
+                if (!snapshot.exists() || Boolean.TRUE.equals(snapshot.getBoolean("deleted"))) {
+                    absent.add(reference); // A removed complaint may be registered again
+                } else if (!isSameSubmission(snapshot, documents.get(reference))) {
+                    existing.add(reference.getId()); // Not from an earlier attempt at this row
+                }
+            }
+            for (DocumentReference reference : absent) {
+                transaction.set(reference, documents.get(reference));
+            }
+            return existing;
+        }), TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+        if (!duplicates.isEmpty()) {
+            Log.w("ComplaintUploadWorker", duplicates.size() + " complaint(s) already registered");
+        }
+        return duplicates;
+    }
+
+    // Whether the stored document has the details the row was uploaded with. Status and
+    // remarks may have been updated by an admin since, and the date is the server's.
+    private static boolean isSameSubmission(DocumentSnapshot snapshot, Complaint complaint) {
+        Complaint stored = snapshot.toObject(Complaint.class);
+        if (stored == null) {
+            return false;
+        }
+        stored.setDate(null); // Left out of the upload, like the row's
+        return stored.sameDetails(complaint);
+    }
+}
@@ -2,9 +2,12 @@ package com.example.projectc;
 
 import android.app.AlertDialog;
 import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
+import android.view.ViewStub;
 import android.widget.ArrayAdapter;
 import android.widget.Button;
 import android.widget.EditText;
@@ -13,17 +16,104 @@ import android.widget.TextView;
 import android.widget.Toast;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.asynclayoutinflater.view.AsyncLayoutInflater;
 import androidx.cardview.widget.CardView;
+import androidx.core.text.PrecomputedTextCompat;
+import androidx.core.widget.TextViewCompat;
+import androidx.lifecycle.LifecycleOwner;
+import androidx.recyclerview.widget.AsyncListDiffer;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 
+import com.google.firebase.firestore.FieldValue;
 import com.google.firebase.firestore.FirebaseFirestore;
 
 import java.text.SimpleDateFormat;
-import java.util.Date;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class ComplaintsAdapter extends RecyclerView.Adapter<ComplaintsAdapter.ComplaintViewHolder> {
-    private List<Complaint> complaintList;
+
+    /**
+     * Told about edits made from a card, so the screen can update its own list and submit
+     * it again. The adapter never changes the complaints it was given.
+     */
+    public interface OnComplaintChangeListener {
+        void onComplaintUpdated(Complaint updated);
+
+        void onComplaintRemoved(Complaint removed);
+    }
+
+    // Change payloads, OR-ed together: only the views they name are rebound
+    static final int PAYLOAD_STATUS = 1;
+    static final int PAYLOAD_REMARKS = 1 << 1;
+    static final int PAYLOAD_EXPANSION = 1 << 2;
+    static final int PAYLOAD_EXPORT = 1 << 3;
+
+    // Same ID means same card; same content means nothing on it needs rebinding
+    private static final DiffUtil.ItemCallback<ComplaintRow> DIFF_CALLBACK = new DiffUtil.ItemCallback<ComplaintRow>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull ComplaintRow oldItem, @NonNull ComplaintRow newItem) {
+            return oldItem.id != null && oldItem.id.equals(newItem.id);
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull ComplaintRow oldItem, @NonNull ComplaintRow newItem) {
+            return oldItem.sameContent(newItem);
+        }
+
+        // A status update touches only status and remarks; anything else gets a full rebind
+        @Nullable
+        @Override
+        public Object getChangePayload(@NonNull ComplaintRow oldItem, @NonNull ComplaintRow newItem) {
+            if (!oldItem.differsOnlyInStatus(newItem)) {
+                return null;
+            }
+            int changes = 0;
+            if (!oldItem.sameStatus(newItem)) {
+                changes |= PAYLOAD_STATUS;
+            }
+            if (!oldItem.sameRemarks(newItem)) {
+                changes |= PAYLOAD_REMARKS;
+            }
+            return changes != 0 ? changes : null;
+        }
+    };
+
+    // Cards inflated ahead of the first layout and scroll; about two screens' worth
+    private static final int PREWARM_COUNT = 8;
+
+    // Rows are built on one shared background thread, which also owns the date format
+    private static final ExecutorService ROW_EXECUTOR = Executors.newSingleThreadExecutor();
+    // SimpleDateFormat is not thread-safe, so every thread that builds rows gets its own
+    private static final ThreadLocal<SimpleDateFormat> DATE_FORMAT = new ThreadLocal<SimpleDateFormat>() {
+        @Override
+        protected SimpleDateFormat initialValue() {
+            return new SimpleDateFormat("dd MMM yyyy, hh:mm a", Locale.getDefault());
+        }
+    };
+
+    // Diffs each submitted snapshot against the shown one on a background thread
+    private final AsyncListDiffer<ComplaintRow> differ = new AsyncListDiffer<>(this, DIFF_CALLBACK);
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Set<String> expandedIds = new HashSet<>();
+    private final ComplaintTextCache textCache = new ComplaintTextCache();
+    private final ArrayDeque<View> prewarmedViews = new ArrayDeque<>();
+    private boolean prewarmStarted = false;
+    private Map<String, ComplaintRow> rowsById = new HashMap<>(); // Rows of the last submitted list, row thread only
+    private int submitGeneration = 0;
+    private int lastBoundPosition = 0; // Where the text prefetch is centered
+    private OnComplaintChangeListener changeListener;
     private boolean isAdmin;
     private boolean isSuperAdmin;
     private String loggedInUserEmail;
@@ -31,132 +121,275 @@ public class ComplaintsAdapter extends RecyclerView.Adapter<ComplaintsAdapter.Co
 
     public ComplaintsAdapter(List<Complaint> complaintList, boolean isAdmin, boolean isSuperAdmin,
                              String loggedInUserEmail, List<String> assignedDepartments) {
-        this.complaintList = complaintList;
         this.isAdmin = isAdmin;
         this.isSuperAdmin = isSuperAdmin;
         this.loggedInUserEmail = loggedInUserEmail;
         this.assignedDepartments = assignedDepartments;
+        setHasStableIds(true);
+        updateList(complaintList);
+    }
+
+    public void setOnComplaintChangeListener(OnComplaintChangeListener changeListener) {
+        this.changeListener = changeListener;
     }
 
     @NonNull
     @Override
     public ComplaintViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
-        View view = LayoutInflater.from(parent.getContext()).inflate(R.layout.item_complaint, parent, false);
-        return new ComplaintViewHolder(view);
+        View view = prewarmedViews.poll();
+        if (view == null) {
+            view = LayoutInflater.from(parent.getContext()).inflate(R.layout.item_complaint, parent, false);
+        }
+        ComplaintViewHolder holder = new ComplaintViewHolder(view);
+
+        // Listeners are attached once and act on whatever row the holder shows when clicked
+        holder.cardView.setOnClickListener(v -> toggleExpansion(holder));
+        return holder;
+    }
+
+    @Override
+    public void onAttachedToRecyclerView(@NonNull RecyclerView recyclerView) {
+        if (!prewarmStarted) {
+            prewarmStarted = true;
+            prewarm(recyclerView);
+        }
+    }
+
+    /**
+     * Inflate cards on a background thread and park them in the RecyclerView's pool, so the
+     * first layout and scroll reuse them instead of inflating on the main thread. The pool
+     * belongs to this screen: pooled cards hold their activity.
+     */
+    private void prewarm(RecyclerView recyclerView) {
+        RecyclerView.RecycledViewPool pool = recyclerView.getRecycledViewPool();
+        pool.setMaxRecycledViews(0, PREWARM_COUNT);
+        AsyncLayoutInflater inflater = new AsyncLayoutInflater(recyclerView.getContext());
+        for (int i = 0; i < PREWARM_COUNT; i++) {
+            inflater.inflate(R.layout.item_complaint, recyclerView, (view, resid, parent) -> {
+                // createViewHolder() takes the view just queued and sets the holder's view type
+                prewarmedViews.add(view);
+                pool.putRecycledView(createViewHolder(recyclerView, 0));
+            });
+        }
+
+        // One details section tells how long text will be laid out; measure the shown list ahead
+        inflater.inflate(R.layout.item_complaint_details, recyclerView, (view, resid, parent) -> {
+            if (!textCache.hasParams()) {
+                textCache.setParams(view.findViewById(R.id.descriptionTextView), view.findViewById(R.id.remarkTextView));
+                textCache.prefetchAround(differ.getCurrentList(), lastBoundPosition);
+            }
+        });
     }
 
     @Override
     public void onBindViewHolder(@NonNull ComplaintViewHolder holder, int position) {
-        Complaint complaint = complaintList.get(position);
-        Context context = holder.itemView.getContext();
+        List<ComplaintRow> rows = differ.getCurrentList();
+        ComplaintRow row = rows.get(position);
+        holder.row = row;
+        lastBoundPosition = position;
+        textCache.prefetchAround(rows, position);
 
         // Set basic information
-        holder.dateTextView.setText(formatDate(complaint.getDate()));
-        holder.departmentTextView.setText("Department: " + complaint.getDepartment());
-        holder.typeTextView.setText("Complaint Type: "+ complaint.getType());
-        holder.descriptionTextView.setText("Description: " + complaint.getDescription());
+        holder.compactRow.setContent(row.date, row.department, row.type);
+        bindStatus(holder, row);
 
+        // The details are only filled in while the card is expanded
+        bindExpansion(holder, row);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull ComplaintViewHolder holder, int position, @NonNull List<Object> payloads) {
+        int changes = payloadFlags(payloads);
+        if (changes == 0) {
+            onBindViewHolder(holder, position);
+            return;
+        }
+
+        ComplaintRow row = differ.getCurrentList().get(position);
+        holder.row = row;
+        if ((changes & PAYLOAD_STATUS) != 0) {
+            bindStatus(holder, row);
+        }
+        if ((changes & PAYLOAD_EXPANSION) != 0) {
+            bindExpansion(holder, row);
+        } else if (isExpanded(row) && holder.details != null) {
+            if ((changes & PAYLOAD_REMARKS) != 0) {
+                bindRemarks(holder.details, row);
+            }
+            if ((changes & PAYLOAD_EXPORT) != 0) {
+                bindExport(holder.details, row);
+            }
+        }
+    }
+
+    // The OR of all payload flags, or 0 when a full bind is needed
+    private static int payloadFlags(List<Object> payloads) {
+        int changes = 0;
+        for (Object payload : payloads) {
+            if (!(payload instanceof Integer)) {
+                return 0;
+            }
+            changes |= (Integer) payload;
+        }
+        return changes;
+    }
+
+    private void bindStatus(ComplaintViewHolder holder, ComplaintRow row) {
         // Set status with appropriate background
-        holder.statusTextView.setText(complaint.getStatus());
-        setStatusBackground(holder.statusTextView, complaint.getStatus());
+        holder.compactRow.setStatus(row.status, row.statusBackground);
+        holder.compactRow.setContentDescription(row.summary);
+    }
+
+    private boolean isExpanded(ComplaintRow row) {
+        return expandedIds.contains(row.id);
+    }
+
+    private void bindExpansion(ComplaintViewHolder holder, ComplaintRow row) {
+        if (!isExpanded(row)) {
+            if (holder.details != null) {
+                holder.details.expandableView.setVisibility(View.GONE);
+            }
+            return;
+        }
+
+        Details details = detailsOf(holder);
+        setText(details.descriptionTextView, row.description, textCache.description(row));
 
         // Set contact information
-        holder.contactPersonTextView.setText("Name: " + complaint.getContactPerson());
-        holder.emailTextView.setText("Email: " + complaint.getEmail());
-        holder.phoneTextView.setText("Phone: " + complaint.getPhone());
+        details.contactPersonTextView.setText(row.contactPerson);
+        details.emailTextView.setText(row.email);
+        details.phoneTextView.setText(row.phone);
 
         // Set admin-specific information
-        holder.locationTextView.setText("Location: " + complaint.getLocation());
-        holder.priorityTextView.setText("Priority: " + complaint.getPriority());
-
-        // Handle remarks
-        if (complaint.getRemarks() != null && !complaint.getRemarks().isEmpty()) {
-            holder.remarkLabelTextView.setVisibility(View.VISIBLE);
-            holder.remarkTextView.setVisibility(View.VISIBLE);
-            holder.remarkTextView.setText(complaint.getRemarks());
+        details.locationTextView.setText(row.location);
+        details.priorityTextView.setText(row.priority);
+
+        bindRemarks(details, row);
+        bindAdminControls(holder, details, row);
+        details.saveAsPdfButton.setVisibility(row.has(ComplaintRow.CONTROL_EXPORT) ? View.VISIBLE : View.GONE);
+        bindExport(details, row);
+        details.expandableView.setVisibility(View.VISIBLE);
+    }
+
+    private void bindRemarks(Details details, ComplaintRow row) {
+        if (row.remarks != null) {
+            details.remarkLabelTextView.setVisibility(View.VISIBLE);
+            details.remarkTextView.setVisibility(View.VISIBLE);
+            setText(details.remarkTextView, row.remarks, textCache.remarks(row));
         } else {
-            holder.remarkLabelTextView.setVisibility(View.GONE);
-            holder.remarkTextView.setVisibility(View.GONE);
+            details.remarkLabelTextView.setVisibility(View.GONE);
+            details.remarkTextView.setVisibility(View.GONE);
         }
+    }
 
-        // Set up click listener for expand/collapse
-        holder.cardView.setOnClickListener(v -> toggleExpansion(holder));
-
-        // Set up PDF button
-        holder.saveAsPdfButton.setOnClickListener(v -> {
-            PdfGenerator.generatePdf(context, complaint);
-        });
+    // An export started before the screen was recreated reports to this one from now on
+    private void bindExport(Details details, ComplaintRow row) {
+        Context context = details.saveAsPdfButton.getContext();
+        PdfExporter exporter = PdfExporter.getInstance(context);
+        int percent = exporter.progressOf(row.id);
+        if (percent >= 0) {
+            exporter.attach((LifecycleOwner) context, row.id, exportListener(row.id));
+        }
+        details.saveAsPdfButton.setEnabled(percent < 0);
+        details.saveAsPdfButton.setText(percent < 0 ? "Export as PDF" : "Exporting PDF... " + percent + "%");
+    }
 
-        // Set up admin controls
-        setupAdminControls(holder, complaint, context);
+    // The export runs in the background and is cancelled if the screen is closed
+    private void exportPdf(ComplaintViewHolder holder) {
+        Context context = holder.itemView.getContext();
+        String id = holder.row.id;
+        PdfExporter.getInstance(context).export((LifecycleOwner) context, holder.row.complaint, exportListener(id));
+        notifyExportChanged(id);
     }
 
-    private void toggleExpansion(ComplaintViewHolder holder) {
-        boolean isExpanded = holder.expandableView.getVisibility() == View.VISIBLE;
-        holder.expandableView.setVisibility(isExpanded ? View.GONE : View.VISIBLE);
+    private PdfExporter.Listener exportListener(String id) {
+        return new PdfExporter.Listener() {
+            @Override
+            public void onProgress(int percent) {
+                notifyExportChanged(id);
+            }
 
-        int position = holder.getAdapterPosition();
-        if (position != RecyclerView.NO_POSITION) {
-            Complaint complaint = complaintList.get(position);
+            @Override
+            public void onFinished(boolean saved) {
+                notifyExportChanged(id);
+            }
+        };
+    }
 
-            // Show/hide buttons based on user role and expansion state
-            if (isAdmin || isSuperAdmin || complaint.getEmail().equalsIgnoreCase(loggedInUserEmail)) {
-                holder.buttonsContainer.setVisibility(isExpanded ? View.GONE : View.VISIBLE);
-                holder.saveAsPdfButton.setVisibility(isExpanded ? View.GONE : View.VISIBLE);
+    private void notifyExportChanged(String id) {
+        List<ComplaintRow> rows = differ.getCurrentList();
+        for (int i = 0; i < rows.size(); i++) {
+            if (id.equals(rows.get(i).id)) {
+                notifyItemChanged(i, PAYLOAD_EXPORT);
+                return;
             }
         }
     }
 
+    // Measured text when it is ready, plain text otherwise; the same text is not set twice
+    private static void setText(TextView view, String plain, @Nullable PrecomputedTextCompat precomputed) {
+        if (precomputed != null) {
+            if (view.getText() != precomputed) {
+                TextViewCompat.setPrecomputedText(view, precomputed);
+            }
+        } else {
+            view.setText(plain);
+        }
+    }
 
-    private void setupAdminControls(ComplaintViewHolder holder, Complaint complaint, Context context) {
-        if (isSuperAdmin) {
-            holder.adminSection.setVisibility(View.VISIBLE);
-            holder.updateStatusButton.setOnClickListener(v -> showUpdateDialog(context, complaint));
-            holder.removeComplaintButton.setOnClickListener(v -> removeComplaint(context, complaint));
+    // The admin buttons are inflated the first time a card shows them to an admin
+    private void bindAdminControls(ComplaintViewHolder holder, Details details, ComplaintRow row) {
+        boolean canUpdate = row.has(ComplaintRow.CONTROL_UPDATE);
+        if (details.buttonsContainer == null) {
+            if (!canUpdate) {
+                return;
+            }
+            details.buttonsContainer = details.adminStub.inflate();
+            details.updateStatusButton = details.buttonsContainer.findViewById(R.id.updateStatusButton);
+            details.removeComplaintButton = details.buttonsContainer.findViewById(R.id.removeComplaintButton);
+            details.updateStatusButton.setOnClickListener(v -> showUpdateDialog(v.getContext(), holder.row.complaint));
+            details.removeComplaintButton.setOnClickListener(v -> removeComplaint(v.getContext(), holder.row.complaint));
         }
-        else if (isAdmin && (assignedDepartments.contains("ALL") ||
-                assignedDepartments.contains(complaint.getDepartment()))) {
-            holder.adminSection.setVisibility(View.VISIBLE);
-            holder.updateStatusButton.setOnClickListener(v -> showUpdateDialog(context, complaint));
-            holder.removeComplaintButton.setVisibility(View.GONE);
+        details.buttonsContainer.setVisibility(canUpdate ? View.VISIBLE : View.GONE);
+        details.removeComplaintButton.setVisibility(row.has(ComplaintRow.CONTROL_REMOVE) ? View.VISIBLE : View.GONE);
+    }
+
+    // The expandable section is inflated from its stub the first time the card is expanded
+    private Details detailsOf(ComplaintViewHolder holder) {
+        if (holder.details == null) {
+            holder.details = new Details(holder.expandableStub.inflate());
+            holder.details.saveAsPdfButton.setOnClickListener(v -> exportPdf(holder));
         }
-        else if (complaint.getEmail().equals(loggedInUserEmail)) {
-            // Regular user can see their own details but not admin controls
-            holder.adminSection.setVisibility(View.GONE);
-            holder.updateStatusButton.setVisibility(View.GONE);
-            holder.removeComplaintButton.setVisibility(View.GONE);
+        return holder.details;
+    }
+
+    // Expansion is kept per complaint ID, so it survives recycling and list updates
+    private void toggleExpansion(ComplaintViewHolder holder) {
+        int position = holder.getAdapterPosition();
+        if (position == RecyclerView.NO_POSITION) {
+            return;
         }
-        else {
-            // Hide all admin controls for other users
-            holder.adminSection.setVisibility(View.GONE);
-            holder.updateStatusButton.setVisibility(View.GONE);
-            holder.removeComplaintButton.setVisibility(View.GONE);
+        String id = differ.getCurrentList().get(position).id;
+        if (!expandedIds.remove(id)) {
+            expandedIds.add(id);
         }
+        notifyItemChanged(position, PAYLOAD_EXPANSION);
     }
 
-
-
-
-    private void setStatusBackground(TextView statusTextView, String status) {
-        int backgroundResId;
-        switch (status.toLowerCase()) {
-            case "pending":
-                backgroundResId = R.drawable.bg_status_pending;
-                break;
-            case "in progress":
-                backgroundResId = R.drawable.bg_status_in_progress;
-                break;
-            case "resolved":
-                backgroundResId = R.drawable.bg_status_resolved;
-                break;
-            case "closed":
-                backgroundResId = R.drawable.bg_status_closed;
-                break;
-            default:
-                backgroundResId = R.drawable.bg_status_default;
-                break;
+    // Which controls the viewer gets on this complaint's card
+    private int controlsFor(Complaint complaint) {
+        int controls = 0;
+        if (isSuperAdmin) {
+            controls |= ComplaintRow.CONTROL_UPDATE | ComplaintRow.CONTROL_REMOVE;
+        } else if (isAdmin && (assignedDepartments.contains("ALL") ||
+                assignedDepartments.contains(complaint.getDepartment()))) {
+            controls |= ComplaintRow.CONTROL_UPDATE;
         }
-        statusTextView.setBackgroundResource(backgroundResId);
+        // Regular users can export only their own complaints
+        if (isAdmin || isSuperAdmin || (complaint.getEmail() != null && complaint.getEmail().equalsIgnoreCase(loggedInUserEmail))) {
+            controls |= ComplaintRow.CONTROL_EXPORT;
+        }
+        return controls;
     }
 
     private void showUpdateDialog(Context context, Complaint complaint) {
@@ -189,11 +422,15 @@ public class ComplaintsAdapter extends RecyclerView.Adapter<ComplaintsAdapter.Co
 
             FirebaseFirestore db = FirebaseFirestore.getInstance();
             db.collection("complaints").document(complaint.getId())
-                    .update("status", status, "remarks", remarks)
+                    .update("status", status, "remarks", remarks, "updatedAt", FieldValue.serverTimestamp())
                     .addOnSuccessListener(aVoid -> {
-                        complaint.setStatus(status);
-                        complaint.setRemarks(remarks);
-                        notifyDataSetChanged();
+                        // The shown snapshot is immutable; hand an edited copy to the screen
+                        Complaint updated = complaint.copy();
+                        updated.setStatus(status);
+                        updated.setRemarks(remarks);
+                        if (changeListener != null) {
+                            changeListener.onComplaintUpdated(updated);
+                        }
                         Toast.makeText(context, "Status updated", Toast.LENGTH_SHORT).show();
                     })
                     .addOnFailureListener(e -> {
@@ -212,10 +449,13 @@ public class ComplaintsAdapter extends RecyclerView.Adapter<ComplaintsAdapter.Co
                 .setPositiveButton("Remove", (dialog, which) -> {
                     FirebaseFirestore db = FirebaseFirestore.getInstance();
                     db.collection("complaints").document(complaint.getId())
-                            .delete()
+                            // A soft delete: the tombstone's new updatedAt carries the removal
+                            // to every device's delta sync, including this one's local store
+                            .update("deleted", true, "updatedAt", FieldValue.serverTimestamp())
                             .addOnSuccessListener(aVoid -> {
-                                complaintList.remove(complaint);
-                                notifyDataSetChanged();
+                                if (changeListener != null) {
+                                    changeListener.onComplaintRemoved(complaint);
+                                }
                                 Toast.makeText(context, "Complaint removed", Toast.LENGTH_SHORT).show();
                             })
                             .addOnFailureListener(e -> {
@@ -226,66 +466,114 @@ public class ComplaintsAdapter extends RecyclerView.Adapter<ComplaintsAdapter.Co
                 .show();
     }
 
-    private String formatDate(Date date) {
-        if (date != null) {
-            SimpleDateFormat dateFormat = new SimpleDateFormat("dd MMM yyyy, hh:mm a");
-            return dateFormat.format(date);
-        }
-        return "Date not available";
+    /**
+     * Show a snapshot of the list. Rows for new or changed complaints are built in the
+     * background, then only the cards that differ from the shown list are rebound. Later
+     * edits to the given list are not seen until it is submitted again.
+     */
+    public void updateList(List<Complaint> newComplaintList) {
+        List<Complaint> snapshot = new ArrayList<>(newComplaintList);
+        int generation = ++submitGeneration;
+        ROW_EXECUTOR.execute(() -> {
+            List<ComplaintRow> rows = buildRows(snapshot);
+            mainHandler.post(() -> {
+                if (generation == submitGeneration) {
+                    differ.submitList(Collections.unmodifiableList(rows), () -> {
+                        // Rows that were not rebound still need their text around where the user is
+                        List<ComplaintRow> shown = differ.getCurrentList();
+                        textCache.prefetchAround(shown, Math.min(lastBoundPosition, Math.max(0, shown.size() - 1)));
+                    });
+                }
+            });
+        });
     }
 
-    public void updateList(List<Complaint> newComplaintList) {
-        this.complaintList = newComplaintList;
-        notifyDataSetChanged();
+    // Row thread only. Unchanged complaints keep the row built for the previous list.
+    private List<ComplaintRow> buildRows(List<Complaint> complaints) {
+        Map<String, ComplaintRow> previous = rowsById;
+        rowsById = new HashMap<>();
+        List<ComplaintRow> rows = new ArrayList<>(complaints.size());
+        for (Complaint complaint : complaints) {
+            ComplaintRow row = previous.get(complaint.getId());
+            if (row == null || row.contentHash != complaint.contentHash() || !row.complaint.sameContent(complaint)) {
+                row = new ComplaintRow(complaint, controlsFor(complaint), DATE_FORMAT.get());
+            }
+            rowsById.put(row.id, row);
+            rows.add(row);
+        }
+        return rows;
     }
 
     @Override
     public int getItemCount() {
-        return complaintList.size();
+        return differ.getCurrentList().size();
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return stableId(differ.getCurrentList().get(position).id);
+    }
+
+    // 64-bit FNV-1a of the document ID; collisions are negligible at list sizes
+    private static long stableId(String id) {
+        if (id == null) {
+            return RecyclerView.NO_ID;
+        }
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < id.length(); i++) {
+            hash ^= id.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
     }
 
     static class ComplaintViewHolder extends RecyclerView.ViewHolder {
+        ComplaintRow row; // Last bound row, read by the click listeners
         CardView cardView;
-        TextView dateTextView, departmentTextView, typeTextView, descriptionTextView;
-        TextView statusTextView, remarkLabelTextView, remarkTextView;
-        TextView contactPersonTextView, emailTextView, phoneTextView;
-        TextView locationTextView, priorityTextView;
-        View adminSection;
-        View expandableView;
-        View buttonsContainer;
-        Button updateStatusButton, removeComplaintButton, saveAsPdfButton;
+        ComplaintCardView compactRow;
+        ViewStub expandableStub;
+        Details details; // Null until the card is first expanded
 
         public ComplaintViewHolder(@NonNull View itemView) {
             super(itemView);
             cardView = itemView.findViewById(R.id.cardView);
-            expandableView = itemView.findViewById(R.id.expandableView);
+            expandableStub = itemView.findViewById(R.id.expandableStub);
+
+            // Compact view: date, status, department and type, drawn by one view
+            compactRow = itemView.findViewById(R.id.compactRow);
+        }
+    }
 
-            // Compact view elements
-            dateTextView = itemView.findViewById(R.id.dateTextView);
-            departmentTextView = itemView.findViewById(R.id.complaintDepartment);
-            typeTextView = itemView.findViewById(R.id.typeTextView);
-            statusTextView = itemView.findViewById(R.id.statusTextView);
+    // Views of the expandable section (item_complaint_details)
+    static class Details {
+        View expandableView;
+        TextView descriptionTextView, remarkLabelTextView, remarkTextView;
+        TextView contactPersonTextView, emailTextView, phoneTextView;
+        TextView locationTextView, priorityTextView;
+        ViewStub adminStub;
+        View buttonsContainer; // Null until admin buttons are first shown
+        Button updateStatusButton, removeComplaintButton, saveAsPdfButton;
+
+        Details(View expandableView) {
+            this.expandableView = expandableView;
 
             // Expanded view elements
-            descriptionTextView = itemView.findViewById(R.id.descriptionTextView);
-            remarkLabelTextView = itemView.findViewById(R.id.remarkLabelTextView);
-            remarkTextView = itemView.findViewById(R.id.remarkTextView);
+            descriptionTextView = expandableView.findViewById(R.id.descriptionTextView);
+            remarkLabelTextView = expandableView.findViewById(R.id.remarkLabelTextView);
+            remarkTextView = expandableView.findViewById(R.id.remarkTextView);
 
             // Contact information
-            contactPersonTextView = itemView.findViewById(R.id.contactPersonTextView);
-            emailTextView = itemView.findViewById(R.id.emailTextView);
-            phoneTextView = itemView.findViewById(R.id.phoneTextView);
-
-            // Admin section
-            adminSection = itemView.findViewById(R.id.adminSection);
-            locationTextView = itemView.findViewById(R.id.locationTextView);
-            priorityTextView = itemView.findViewById(R.id.priorityTextView);
-
-            // Buttons container
-            buttonsContainer = itemView.findViewById(R.id.buttonsContainer);
-            updateStatusButton = itemView.findViewById(R.id.updateStatusButton);
-            removeComplaintButton = itemView.findViewById(R.id.removeComplaintButton);
-            saveAsPdfButton = itemView.findViewById(R.id.saveAsPdfButton);
+            contactPersonTextView = expandableView.findViewById(R.id.contactPersonTextView);
+            emailTextView = expandableView.findViewById(R.id.emailTextView);
+            phoneTextView = expandableView.findViewById(R.id.phoneTextView);
+
+            // Other details
+            locationTextView = expandableView.findViewById(R.id.locationTextView);
+            priorityTextView = expandableView.findViewById(R.id.priorityTextView);
+
+            // Buttons
+            adminStub = expandableView.findViewById(R.id.adminStub);
+            saveAsPdfButton = expandableView.findViewById(R.id.saveAsPdfButton);
         }
     }
-}
\ No newline at end of file
+}
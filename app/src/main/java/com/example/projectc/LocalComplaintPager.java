@@ -0,0 +1,130 @@
+package com.example.projectc;
+
+import com.google.firebase.firestore.FirebaseFirestore;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Pages through the complaints of a scope, newest first. Pages come from
+ * {@link ComplaintLocalStore} as far back as the scope is mirrored, so screens open without
+ * waiting on the network; past that they come from Firestore, and each one is saved to the
+ * store before it is shown. The mirror only ever grows as far as someone has scrolled.
+ */
+public class LocalComplaintPager implements ComplaintPageSource {
+    // Margin for the gap between the device clock and server time when first mirroring a scope
+    private static final long CLOCK_SKEW_MS = 5 * 60 * 1000;
+
+    private final ComplaintLocalStore store;
+    private final FirebaseFirestore db;
+    private final ComplaintScope scope;
+    private final int pageSize;
+    private Complaint last; // Cursor: last complaint of the previous page read from the store
+    private ComplaintPageSource remote; // Firestore below the mirror, once the store ran out
+    private boolean mirroring = true; // Saving fetched pages; stops after a failed save
+    private boolean loading = false;
+    private boolean exhausted = false;
+
+    public LocalComplaintPager(ComplaintLocalStore store, FirebaseFirestore db, ComplaintScope scope, int pageSize) {
+        this.store = store;
+        this.db = db;
+        this.scope = scope;
+        this.pageSize = pageSize;
+    }
+
+    @Override
+    public void loadNextPage(Callback callback) {
+        if (loading || exhausted) {
+            return;
+        }
+        loading = true;
+
+        if (remote != null) {
+            loadRemote(new ArrayList<>(), callback);
+            return;
+        }
+        store.loadPage(scope, last, pageSize, local -> {
+            if (local.complaints.size() == pageSize || local.complete) {
+                loading = false;
+                exhausted = local.complaints.size() < pageSize;
+                advance(local.complaints);
+                callback.onPageLoaded(local.complaints);
+                return;
+            }
+
+            // The mirror ends here; fill the page from Firestore, below everything mirrored
+            Date before = local.coveredFrom != ComplaintLocalStore.NOT_COVERED ? new Date(local.coveredFrom) : null;
+            remote = scope.pager(db, pageSize, before);
+            loadRemote(new ArrayList<>(local.complaints), callback);
+        });
+    }
+
+    private void loadRemote(List<Complaint> page, Callback callback) {
+        long fetchedFrom = System.currentTimeMillis() - CLOCK_SKEW_MS;
+        remote.loadNextPage(new Callback() {
+            @Override
+            public void onPageLoaded(List<Complaint> fetched) {
+                boolean complete = !remote.hasMore();
+                page.addAll(fetched);
+                if (!mirroring) {
+                    deliver(page, complete, callback);
+                    return;
+                }
+
+                // Every complaint newer than the page's oldest millisecond has now been fetched
+                long coveredFrom = fetched.isEmpty() ? ComplaintLocalStore.NOT_COVERED
+                        : timeOf(fetched.get(fetched.size() - 1).getDate()) + 1;
+                store.savePage(scope, fetched, coveredFrom, complete, fetchedFrom, committed -> {
+                    // After a gap the mirror could no longer be trusted to be contiguous
+                    mirroring = committed;
+                    deliver(page, complete, callback);
+                });
+            }
+
+            @Override
+            public void onError(Exception e) {
+                loading = false;
+                if (!page.isEmpty()) {
+                    remote = null; // Read the same rows from the store again on the next attempt
+                }
+                callback.onError(e);
+            }
+        });
+    }
+
+    private void deliver(List<Complaint> page, boolean complete, Callback callback) {
+        loading = false;
+        exhausted = complete;
+        advance(page);
+        callback.onPageLoaded(page);
+    }
+
+    private void advance(List<Complaint> page) {
+        if (!page.isEmpty()) {
+            last = page.get(page.size() - 1);
+        }
+    }
+
+    private static long timeOf(Date date) {
+        return date != null ? date.getTime() : 0;
+    }
+
+    @Override
+    public boolean isLoading() {
+        return loading;
+    }
+
+    @Override
+    public boolean hasMore() {
+        return !exhausted;
+    }
+
+    @Override
+    public void reset() {
+        last = null;
+        remote = null;
+        mirroring = true;
+        exhausted = false;
+    }
+}
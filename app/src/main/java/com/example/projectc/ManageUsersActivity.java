@@ -2,7 +2,8 @@ package com.example.projectc;
 
 import android.os.Build;
 import android.os.Bundle;
-import android.text.TextUtils;
+import android.os.Handler;
+import android.os.Looper;
 import android.view.View;
 import android.widget.ProgressBar;
 
@@ -17,9 +18,7 @@ import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.google.firebase.firestore.FirebaseFirestore;
-import com.google.firebase.firestore.QueryDocumentSnapshot;
 
-import java.util.ArrayList;
 import java.util.List;
 
 public class ManageUsersActivity extends AppCompatActivity {
@@ -30,7 +29,12 @@ public class ManageUsersActivity extends AppCompatActivity {
     private TextView noUsersMessage;
     private SearchView searchView;
 
-    private List<User> userList = new ArrayList<>(); // Full list of users
+    private UserPager pager;
+    private final Handler searchHandler = new Handler(Looper.getMainLooper());
+
+    private static final int PAGE_SIZE = 50;
+    private static final int PREFETCH_DISTANCE = 15; // Start loading the next page this many rows before the end
+    private static final long SEARCH_DELAY_MS = 300; // Wait for typing to pause before querying the server
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -51,16 +55,37 @@ public class ManageUsersActivity extends AppCompatActivity {
         searchView = findViewById(R.id.searchView);
 
         // Set up RecyclerView layout manager
-        usersRecyclerView.setLayoutManager(new LinearLayoutManager(this));
+        LinearLayoutManager layoutManager = new LinearLayoutManager(this);
+        usersRecyclerView.setLayoutManager(layoutManager);
 
         // Initialize Firestore instance
         db = FirebaseFirestore.getInstance();
+        pager = new UserPager(db, PAGE_SIZE);
+        adapter = new UsersAdapter(db);
+        usersRecyclerView.setAdapter(adapter);
+        usersRecyclerView.addOnScrollListener(new PaginationScrollListener(layoutManager, PREFETCH_DISTANCE) {
+            @Override
+            protected boolean isLoading() {
+                return pager.isLoading();
+            }
+
+            @Override
+            protected boolean hasMore() {
+                // Search results are not paged; more pages load once the search is cleared
+                return pager.hasMore() && adapter.isShowingAll();
+            }
+
+            @Override
+            protected void loadMore() {
+                fetchUsers();
+            }
+        });
 
         // Show the progress bar while data is loading
         progressBar.setVisibility(View.VISIBLE);
         noUsersMessage.setVisibility(View.GONE);
 
-        // Fetch users from Firestore, excluding the 'super_admin' role
+        // Fetch the first page of clients; admins are filtered out by the query
         fetchUsers();
 
         // Set up SearchView listener
@@ -68,51 +93,37 @@ public class ManageUsersActivity extends AppCompatActivity {
     }
 
     /**
-     * Fetch users from Firestore excluding 'super_admin' role and update the RecyclerView.
+     * Fetch the next page of clients, ordered by name, and append it to the RecyclerView.
      */
     private void fetchUsers() {
-        db.collection("users")
-                .get()
-                .addOnCompleteListener(task -> {
-                    progressBar.setVisibility(View.GONE);
-
-                    if (task.isSuccessful() && task.getResult() != null) {
-                        userList.clear(); // Clear the list before adding new data
-
-                        for (QueryDocumentSnapshot document : task.getResult()) {
-                            String role = document.getString("role");
-
-                            // Exclude users with "admin" or "superadmin" roles
-                            if (!"admin".equals(role) && !"superadmin".equals(role)) {
-                                String id = document.getId();
-                                String name = document.getString("name");
-                                String email = document.getString("email");
-                                String phone = document.getString("phone");
-                                String status = document.getString("status");
-
-                                User user = new User(id, name, email, phone, role, status);
-                                userList.add(user);
-                            }
-                        }
-
-                        if (userList.isEmpty()) {
-                            noUsersMessage.setVisibility(View.VISIBLE);
-                            noUsersMessage.setText("No users found.");
-                        } else {
-                            noUsersMessage.setVisibility(View.GONE);
-                            adapter = new UsersAdapter(userList, db);
-                            usersRecyclerView.setAdapter(adapter);
-                        }
-                    } else {
-                        noUsersMessage.setVisibility(View.VISIBLE);
-                        noUsersMessage.setText("Failed to load users.");
-                    }
-                })
-                .addOnFailureListener(e -> {
-                    progressBar.setVisibility(View.GONE);
+        pager.loadNextPage(new UserPager.Callback() {
+            @Override
+            public void onPageLoaded(List<User> page) {
+                progressBar.setVisibility(View.GONE);
+                adapter.addUsers(page);
+                if (adapter.isShowingAll()) {
+                    updateEmptyState("No users found.");
+                }
+            }
+
+            @Override
+            public void onError(Exception e) {
+                progressBar.setVisibility(View.GONE);
+                if (adapter.getItemCount() == 0) {
                     noUsersMessage.setVisibility(View.VISIBLE);
                     noUsersMessage.setText("Error loading users: " + e.getMessage());
-                });
+                }
+            }
+        });
+    }
+
+    private void updateEmptyState(String message) {
+        if (adapter.getItemCount() == 0) {
+            noUsersMessage.setVisibility(View.VISIBLE);
+            noUsersMessage.setText(message);
+        } else {
+            noUsersMessage.setVisibility(View.GONE);
+        }
     }
 
     /**
@@ -135,15 +146,38 @@ public class ManageUsersActivity extends AppCompatActivity {
     }
 
     /**
-     * Filter the user list based on the query and update the RecyclerView.
+     * Filter the loaded users right away, then, while not every user has been loaded, ask
+     * the server for name matches once typing pauses.
      *
      * @param query The search query.
      */
     private void filterUsers(String query) {
-        if (adapter != null && !TextUtils.isEmpty(query)) {
-            adapter.filterList(query);
-        } else if (adapter != null) {
-            adapter.filterList(""); // Reset the list if the query is empty
+        String trimmed = query.trim();
+        adapter.filterList(trimmed);
+        updateEmptyState(trimmed.isEmpty() ? "No users found." : "No matching users.");
+
+        searchHandler.removeCallbacksAndMessages(null);
+        if (!trimmed.isEmpty() && pager.hasMore()) {
+            searchHandler.postDelayed(() -> pager.searchByName(trimmed, PAGE_SIZE, new UserPager.Callback() {
+                @Override
+                public void onPageLoaded(List<User> page) {
+                    adapter.addSearchResults(trimmed, page);
+                    if (!adapter.isShowingAll()) {
+                        updateEmptyState("No matching users.");
+                    }
+                }
+
+                @Override
+                public void onError(Exception e) {
+                    // The matches among the loaded users are still shown
+                }
+            }), SEARCH_DELAY_MS);
         }
     }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        searchHandler.removeCallbacksAndMessages(null);
+    }
 }
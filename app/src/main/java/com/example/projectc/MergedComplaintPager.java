@@ -0,0 +1,168 @@
+package com.example.projectc;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Merges several date-descending complaint streams into one date-descending stream
+ * (k-way merge). Each source is paged independently and only refilled when its buffered
+ * head has been consumed, so reads grow with what is shown rather than with the number
+ * of sources. With no sources at all (an admin without departments) the first call still
+ * answers, with an empty last page.
+ */
+public class MergedComplaintPager implements ComplaintPageSource {
+    private final List<ComplaintPageSource> sources;
+    private final List<ArrayDeque<Complaint>> buffers;
+    private final int pageSize;
+    private boolean loading = false;
+    private boolean delivered = false; // A page has been delivered since the last reset
+
+    public MergedComplaintPager(List<? extends ComplaintPageSource> sources, int pageSize) {
+        this.sources = new ArrayList<>(sources);
+        this.buffers = new ArrayList<>(sources.size());
+        for (int i = 0; i < sources.size(); i++) {
+            buffers.add(new ArrayDeque<>());
+        }
+        this.pageSize = pageSize;
+    }
+
+    @Override
+    public void loadNextPage(Callback callback) {
+        if (loading || !hasMore()) {
+            return;
+        }
+        loading = true;
+        fillPage(new ArrayList<>(pageSize), callback);
+    }
+
+    private void fillPage(List<Complaint> page, Callback callback) {
+        // A source can only take part in the merge once its next item is known
+        List<Integer> starving = new ArrayList<>();
+        for (int i = 0; i < sources.size(); i++) {
+            if (buffers.get(i).isEmpty() && sources.get(i).hasMore()) {
+                starving.add(i);
+            }
+        }
+        if (!starving.isEmpty()) {
+            refill(starving, page, callback);
+            return;
+        }
+
+        // Max-heap of source indices ordered by the date of their buffered head
+        PriorityQueue<Integer> heads = new PriorityQueue<>(Math.max(1, sources.size()),
+                (a, b) -> Long.compare(headTime(b), headTime(a)));
+        for (int i = 0; i < sources.size(); i++) {
+            if (!buffers.get(i).isEmpty()) {
+                heads.add(i);
+            }
+        }
+
+        while (page.size() < pageSize && !heads.isEmpty()) {
+            int i = heads.poll();
+            ArrayDeque<Complaint> buffer = buffers.get(i);
+            page.add(buffer.poll());
+
+            if (!buffer.isEmpty()) {
+                heads.add(i);
+            } else if (sources.get(i).hasMore()) {
+                // This source ran dry mid-page; fetch its next page before merging further
+                fillPage(page, callback);
+                return;
+            }
+        }
+
+        loading = false;
+        delivered = true;
+        callback.onPageLoaded(page);
+    }
+
+    // Settles once every starving source has answered: sources that are still loading ignore
+    // a second request, so a retry before they answer would never hear from them
+    private void refill(List<Integer> starving, List<Complaint> page, Callback callback) {
+        int[] pending = {starving.size()};
+        Exception[] error = {null};
+
+        for (int index : starving) {
+            sources.get(index).loadNextPage(new Callback() {
+                @Override
+                public void onPageLoaded(List<Complaint> sourcePage) {
+                    buffers.get(index).addAll(sourcePage);
+                    settle();
+                }
+
+                @Override
+                public void onError(Exception e) {
+                    if (error[0] == null) {
+                        error[0] = e;
+                    }
+                    settle();
+                }
+
+                private void settle() {
+                    if (--pending[0] > 0) {
+                        return;
+                    }
+                    if (error[0] == null) {
+                        fillPage(page, callback);
+                        return;
+                    }
+                    // Keep whatever was merged so far buffered for the next attempt
+                    restore(page);
+                    loading = false;
+                    callback.onError(error[0]);
+                }
+            });
+        }
+    }
+
+    /**
+     * Puts merged but undelivered complaints back so a retry does not lose them.
+     */
+    private void restore(List<Complaint> page) {
+        if (page.isEmpty() || buffers.isEmpty()) {
+            return;
+        }
+        // Any buffer works: the merge only compares heads, and these are newer than every head
+        ArrayDeque<Complaint> buffer = buffers.get(0);
+        for (int i = page.size() - 1; i >= 0; i--) {
+            buffer.addFirst(page.get(i));
+        }
+        page.clear();
+    }
+
+    private long headTime(int index) {
+        Date date = buffers.get(index).peek().getDate();
+        return date != null ? date.getTime() : Long.MIN_VALUE;
+    }
+
+    @Override
+    public boolean isLoading() {
+        return loading;
+    }
+
+    @Override
+    public boolean hasMore() {
+        if (sources.isEmpty()) {
+            return !delivered;
+        }
+        for (int i = 0; i < sources.size(); i++) {
+            if (!buffers.get(i).isEmpty() || sources.get(i).hasMore()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void reset() {
+        for (int i = 0; i < sources.size(); i++) {
+            sources.get(i).reset();
+            buffers.get(i).clear();
+        }
+        loading = false;
+        delivered = false;
+    }
+}
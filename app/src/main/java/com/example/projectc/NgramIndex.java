@@ -0,0 +1,227 @@
+package com.example.projectc;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Inverted index from character trigrams to the documents containing them, answering
+ * case-insensitive substring queries.
+ *
+ * Every document gets an increasing slot number, so posting lists are sorted simply by
+ * being appended to. A query intersects the posting lists of its trigrams, smallest first,
+ * and checks the few remaining candidates against their lowercased text. Updating a
+ * document retires its old slot; the index is rebuilt once half of the slots are retired.
+ */
+public class NgramIndex {
+
+    static final int GRAM_LENGTH = 3;
+
+    private final Map<String, Integer> slotByKey = new HashMap<>();
+    private final List<String> keys = new ArrayList<>(); // Slot to key, null once retired
+    private final List<String> texts = new ArrayList<>(); // Slot to lowercased text
+    private final Map<String, IntList> postings = new HashMap<>();
+    private int retired = 0;
+
+    /**
+     * Index the text under the key, replacing what was indexed for it before.
+     */
+    public void put(String key, String text) {
+        remove(key);
+
+        int slot = keys.size();
+        String lower = text.toLowerCase(Locale.ROOT);
+        keys.add(key);
+        texts.add(lower);
+        slotByKey.put(key, slot);
+
+        for (int i = 0; i + GRAM_LENGTH <= lower.length(); i++) {
+            String gram = lower.substring(i, i + GRAM_LENGTH);
+            IntList posting = postings.get(gram);
+            if (posting == null) {
+                posting = new IntList();
+                postings.put(gram, posting);
+            }
+            // Slots only grow, so a repeated gram of this text is always the last entry
+            if (posting.size == 0 || posting.last() != slot) {
+                posting.add(slot);
+            }
+        }
+    }
+
+    public void remove(String key) {
+        Integer slot = slotByKey.remove(key);
+        if (slot == null) {
+            return;
+        }
+        keys.set(slot, null);
+        texts.set(slot, null);
+        retired++;
+        if (retired > 64 && retired * 2 > keys.size()) {
+            compact();
+        }
+    }
+
+    public void clear() {
+        slotByKey.clear();
+        keys.clear();
+        texts.clear();
+        postings.clear();
+        retired = 0;
+    }
+
+    public int size() {
+        return slotByKey.size();
+    }
+
+    /**
+     * Keys of the documents containing the query, in the order they were indexed.
+     */
+    public List<String> search(String query) {
+        String lower = query.toLowerCase(Locale.ROOT);
+        List<String> matches = new ArrayList<>();
+
+        if (lower.length() < GRAM_LENGTH) {
+            // Too short to have a trigram; the lowercased texts still save the per-field work
+            for (int slot = 0; slot < texts.size(); slot++) {
+                String text = texts.get(slot);
+                if (text != null && text.contains(lower)) {
+                    matches.add(keys.get(slot));
+                }
+            }
+            return matches;
+        }
+
+        Set<String> grams = new LinkedHashSet<>();
+        for (int i = 0; i + GRAM_LENGTH <= lower.length(); i++) {
+            grams.add(lower.substring(i, i + GRAM_LENGTH));
+        }
+        List<IntList> lists = new ArrayList<>(grams.size());
+        for (String gram : grams) {
+            IntList posting = postings.get(gram);
+            if (posting == null) {
+                return matches;
+            }
+            lists.add(posting);
+        }
+        Collections.sort(lists, new Comparator<IntList>() {
+            @Override
+            public int compare(IntList a, IntList b) {
+                return Integer.compare(a.size, b.size);
+            }
+        });
+
+        int[] candidates = Arrays.copyOf(lists.get(0).values, lists.get(0).size);
+        int count = candidates.length;
+        for (int i = 1; i < lists.size() && count > 0; i++) {
+            count = intersect(candidates, count, lists.get(i));
+        }
+
+        // Trigrams can all be present without the query being a substring, so verify
+        for (int i = 0; i < count; i++) {
+            String text = texts.get(candidates[i]);
+            if (text != null && text.contains(lower)) {
+                matches.add(keys.get(candidates[i]));
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Upper bound on the number of documents containing the query: the length of its
+     * shortest posting list, or every document for queries shorter than a trigram.
+     */
+    public int estimateMatches(String query) {
+        String lower = query.toLowerCase(Locale.ROOT);
+        if (lower.length() < GRAM_LENGTH) {
+            return size();
+        }
+        int estimate = Integer.MAX_VALUE;
+        for (int i = 0; i + GRAM_LENGTH <= lower.length(); i++) {
+            IntList posting = postings.get(lower.substring(i, i + GRAM_LENGTH));
+            if (posting == null) {
+                return 0;
+            }
+            estimate = Math.min(estimate, posting.size);
+        }
+        return estimate;
+    }
+
+    // Keep the candidates that also appear in the posting list; returns the new count
+    private static int intersect(int[] candidates, int count, IntList posting) {
+        int kept = 0;
+        int j = 0;
+        for (int i = 0; i < count && j < posting.size; i++) {
+            int slot = candidates[i];
+            j = posting.lowerBound(slot, j);
+            if (j < posting.size && posting.values[j] == slot) {
+                candidates[kept++] = slot;
+            }
+        }
+        return kept;
+    }
+
+    // Re-index the live documents into fresh, dense slots
+    private void compact() {
+        List<String> liveKeys = new ArrayList<>(slotByKey.size());
+        List<String> liveTexts = new ArrayList<>(slotByKey.size());
+        for (int slot = 0; slot < keys.size(); slot++) {
+            if (keys.get(slot) != null) {
+                liveKeys.add(keys.get(slot));
+                liveTexts.add(texts.get(slot));
+            }
+        }
+        clear();
+        for (int i = 0; i < liveKeys.size(); i++) {
+            put(liveKeys.get(i), liveTexts.get(i));
+        }
+    }
+
+    /**
+     * Growable sorted int array.
+     */
+    private static class IntList {
+        int[] values = new int[4];
+        int size = 0;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int last() {
+            return values[size - 1];
+        }
+
+        // First index at or after from whose value is >= target, by galloping then binary search
+        int lowerBound(int target, int from) {
+            int step = 1;
+            int high = from;
+            while (high < size && values[high] < target) {
+                from = high + 1;
+                high += step;
+                step <<= 1;
+            }
+            int low = from;
+            high = Math.min(high, size);
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (values[mid] < target) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+}
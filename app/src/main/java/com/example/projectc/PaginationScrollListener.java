@@ -0,0 +1,37 @@
+package com.example.projectc;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+/**
+ * Requests the next page once the user scrolls within {@code prefetchDistance} items of the
+ * end of the list, so the following page is usually on screen before it is reached.
+ */
+public abstract class PaginationScrollListener extends RecyclerView.OnScrollListener {
+    private final LinearLayoutManager layoutManager;
+    private final int prefetchDistance;
+
+    public PaginationScrollListener(LinearLayoutManager layoutManager, int prefetchDistance) {
+        this.layoutManager = layoutManager;
+        this.prefetchDistance = prefetchDistance;
+    }
+
+    @Override
+    public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+        if (dy <= 0 || isLoading() || !hasMore()) {
+            return;
+        }
+
+        int lastVisible = layoutManager.findLastVisibleItemPosition();
+        if (lastVisible + prefetchDistance >= layoutManager.getItemCount()) {
+            loadMore();
+        }
+    }
+
+    protected abstract boolean isLoading();
+
+    protected abstract boolean hasMore();
+
+    protected abstract void loadMore();
+}
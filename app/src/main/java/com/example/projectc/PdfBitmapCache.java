@@ -0,0 +1,118 @@
+package com.example.projectc;
+
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.res.Configuration;
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.util.Log;
+
+import androidx.annotation.DrawableRes;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Images drawn into exported PDFs, decoded once per process at the size they are drawn at.
+ * Decoding samples the resource down first ({@code inSampleSize}), so a large logo is never
+ * held at full resolution. Everything is dropped when the system asks the app to trim memory
+ * and decoded again by the next export.
+ */
+public class PdfBitmapCache implements ComponentCallbacks2 {
+
+    private static PdfBitmapCache instance;
+
+    private final Resources resources;
+    private final Map<String, Bitmap> bitmaps = new HashMap<>();
+
+    private PdfBitmapCache(Context context) {
+        this.resources = context.getResources();
+    }
+
+    public static synchronized PdfBitmapCache getInstance(Context context) {
+        if (instance == null) {
+            Context appContext = context.getApplicationContext();
+            instance = new PdfBitmapCache(appContext);
+            appContext.registerComponentCallbacks(instance);
+        }
+        return instance;
+    }
+
+    /**
+     * The drawable scaled to fit within the given size, keeping its aspect ratio, or null if
+     * it cannot be decoded.
+     */
+    @Nullable
+    public synchronized Bitmap get(@DrawableRes int resId, int maxWidth, int maxHeight) {
+        String key = resId + ":" + maxWidth + "x" + maxHeight;
+        Bitmap bitmap = bitmaps.get(key);
+        if (bitmap == null) {
+            bitmap = decode(resId, maxWidth, maxHeight);
+            if (bitmap != null) {
+                bitmaps.put(key, bitmap);
+            } else {
+                Log.e("PdfBitmapCache", "Could not decode resource " + resId);
+            }
+        }
+        return bitmap;
+    }
+
+    public synchronized void clear() {
+        // Not recycled: a running export may still be drawing them
+        bitmaps.clear();
+    }
+
+    @Nullable
+    private Bitmap decode(@DrawableRes int resId, int maxWidth, int maxHeight) {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inScaled = false; // Work in the resource's own pixels, without density scaling
+        options.inJustDecodeBounds = true;
+        BitmapFactory.decodeResource(resources, resId, options);
+        if (options.outWidth <= 0 || options.outHeight <= 0) {
+            return null;
+        }
+        float scale = Math.min((float) maxWidth / options.outWidth, (float) maxHeight / options.outHeight);
+        int width = Math.max(1, (int) (options.outWidth * scale));
+        int height = Math.max(1, (int) (options.outHeight * scale));
+
+        // Largest power of two that still leaves at least the target size
+        options.inJustDecodeBounds = false;
+        options.inSampleSize = 1;
+        while (options.outWidth / (options.inSampleSize * 2) >= width
+                && options.outHeight / (options.inSampleSize * 2) >= height) {
+            options.inSampleSize *= 2;
+        }
+
+        Bitmap sampled = BitmapFactory.decodeResource(resources, resId, options);
+        if (sampled == null) {
+            return null;
+        }
+        if (sampled.getWidth() == width && sampled.getHeight() == height) {
+            return sampled;
+        }
+        Bitmap scaled = Bitmap.createScaledBitmap(sampled, width, height, true);
+        if (scaled != sampled) {
+            sampled.recycle();
+        }
+        return scaled;
+    }
+
+    @Override
+    public void onTrimMemory(int level) {
+        if (level >= TRIM_MEMORY_RUNNING_LOW) {
+            clear();
+        }
+    }
+
+    @Override
+    public void onLowMemory() {
+        clear();
+    }
+
+    @Override
+    public void onConfigurationChanged(@NonNull Configuration newConfig) {
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.projectc;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Complaint PDFs already rendered, kept in the app's cache directory under the complaint's
+ * ID and a SHA-256 key of everything the PDF shows (see {@link ComplaintIds#digestOf}), so
+ * exporting an unchanged complaint again needs no rendering.
+ * Once the files pass {@link #MAX_BYTES}, the least recently used are deleted; a file's
+ * modified time records its last use. The system may also clear the directory when short
+ * of storage.
+ */
+public class PdfCache {
+
+    private static final long MAX_BYTES = 20L * 1024 * 1024;
+    private static final String DIRECTORY = "pdfs";
+
+    private static PdfCache instance;
+
+    private final File directory;
+
+    private PdfCache(Context context) {
+        this.directory = new File(context.getCacheDir(), DIRECTORY);
+    }
+
+    public static synchronized PdfCache getInstance(Context context) {
+        if (instance == null) {
+            instance = new PdfCache(context);
+        }
+        return instance;
+    }
+
+    /**
+     * The complaint's PDF if it was rendered with this content key, or null.
+     */
+    @Nullable
+    public synchronized File get(String complaintId, String contentKey) {
+        File file = fileFor(complaintId, contentKey);
+        if (!file.isFile()) {
+            return null;
+        }
+        file.setLastModified(System.currentTimeMillis());
+        return file;
+    }
+
+    /**
+     * Store the complaint's rendered PDF, replacing any earlier version, and trim the cache.
+     */
+    public synchronized File put(String complaintId, String contentKey, PdfGenerator.PdfSource pdf) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Could not create " + directory);
+        }
+        deleteVersions(complaintId);
+
+        // Written under a temporary name, so a failed write never looks like a cached PDF
+        File file = fileFor(complaintId, contentKey);
+        File partial = new File(directory, file.getName() + ".tmp");
+        try (OutputStream out = new FileOutputStream(partial)) {
+            pdf.writeTo(out);
+        } catch (IOException | RuntimeException e) {
+            partial.delete();
+            throw e;
+        }
+        if (!partial.renameTo(file)) {
+            partial.delete();
+            throw new IOException("Could not store " + file.getName());
+        }
+        trim();
+        return file;
+    }
+
+    private File fileFor(String complaintId, String contentKey) {
+        // IDs are Firestore document IDs and keys are hex, both safe as file names
+        return new File(directory, "Complaint_" + complaintId + "_" + contentKey + ".pdf");
+    }
+
+    // An older version of a complaint will not be asked for again
+    private void deleteVersions(String complaintId) {
+        String prefix = "Complaint_" + complaintId + "_";
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            if (file.getName().startsWith(prefix)) {
+                file.delete();
+            }
+        }
+    }
+
+    private void trim() {
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return;
+        }
+        long total = 0;
+        for (File file : files) {
+            total += file.length();
+        }
+        if (total <= MAX_BYTES) {
+            return;
+        }
+        Arrays.sort(files, new Comparator<File>() {
+            @Override
+            public int compare(File a, File b) {
+                return Long.compare(a.lastModified(), b.lastModified());
+            }
+        });
+        for (File file : files) {
+            if (total <= MAX_BYTES) {
+                break;
+            }
+            long length = file.length();
+            if (file.delete()) {
+                total -= length;
+            } else {
+                Log.w("PdfCache", "Could not delete " + file.getName());
+            }
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.projectc;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Picture;
+import android.graphics.pdf.PdfDocument;
+
+import androidx.annotation.Nullable;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Draws through Android's {@link PdfDocument}. Handles any text the device can render, but
+ * every page carries its own copy of the images drawn on it.
+ */
+public class PdfDocumentSurface implements PdfSurface {
+
+    @Nullable
+    private final PdfDocument document; // Null while recording a Picture
+    @Nullable
+    private final Picture recording;
+    private PdfDocument.Page page;
+    private Canvas canvas;
+
+    public PdfDocumentSurface() {
+        document = new PdfDocument();
+        recording = null;
+    }
+
+    private PdfDocumentSurface(Picture picture) {
+        document = null;
+        recording = picture;
+        canvas = picture.beginRecording(PdfGenerator.PAGE_WIDTH, PdfGenerator.PAGE_HEIGHT);
+    }
+
+    /**
+     * A surface that draws into the picture, a page in size, instead of onto pages; closing
+     * it ends the recording. It has no pages to start or write out.
+     */
+    static PdfDocumentSurface recording(Picture picture) {
+        return new PdfDocumentSurface(picture);
+    }
+
+    @Override
+    public void startPage(int pageNumber) {
+        page = document.startPage(new PdfDocument.PageInfo.Builder(
+                PdfGenerator.PAGE_WIDTH, PdfGenerator.PAGE_HEIGHT, pageNumber).create());
+        canvas = page.getCanvas();
+    }
+
+    @Override
+    public void finishPage() {
+        document.finishPage(page);
+        page = null;
+        canvas = null;
+    }
+
+    @Override
+    public void drawRect(float left, float top, float right, float bottom, Paint paint) {
+        canvas.drawRect(left, top, right, bottom, paint);
+    }
+
+    @Override
+    public void drawText(String text, float x, float y, Paint paint) {
+        canvas.drawText(text, x, y, paint);
+    }
+
+    @Override
+    public void drawRotatedText(String text, float x, float y, float degrees, Paint paint) {
+        canvas.save();
+        canvas.rotate(degrees, x, y);
+        canvas.drawText(text, x, y, paint);
+        canvas.restore();
+    }
+
+    @Override
+    public void drawBitmap(Bitmap bitmap, float left, float top, @Nullable Paint paint) {
+        canvas.drawBitmap(bitmap, left, top, paint);
+    }
+
+    void drawPicture(Picture picture) {
+        canvas.drawPicture(picture);
+    }
+
+    @Override
+    public int breakText(String text, int start, int end, Paint paint, float maxWidth) {
+        return paint.breakText(text, start, end, true, maxWidth, null);
+    }
+
+    @Override
+    public void writeTo(OutputStream out) throws IOException {
+        document.writeTo(out);
+    }
+
+    @Override
+    public void close() {
+        if (recording != null) {
+            recording.endRecording();
+            canvas = null;
+            return;
+        }
+        if (page != null) {
+            document.finishPage(page); // Abandoned mid-page
+            page = null;
+        }
+        document.close();
+    }
+}
@@ -0,0 +1,209 @@
+package com.example.projectc;
+
+import android.app.Activity;
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import android.widget.Toast;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.lifecycle.DefaultLifecycleObserver;
+import androidx.lifecycle.LifecycleOwner;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs PDF exports on a background thread, one at a time, and reports their progress on the
+ * main thread. Asking to export a complaint (or report) that is already being exported with
+ * the same content joins that export instead of starting another. A destroyed screen stops
+ * hearing about the exports it asked for, and an export is cancelled once every screen that
+ * asked for it has been destroyed. A screen destroyed to be recreated, as on rotation, does
+ * not count: its export keeps running, and the new screen can {@link #attach} to it.
+ */
+public class PdfExporter {
+
+    public interface Listener {
+        void onProgress(int percent);
+
+        void onFinished(boolean saved);
+    }
+
+    // Renders and saves one PDF on the export thread, returning the file name
+    private interface Task {
+        String run(PdfGenerator.ProgressListener progress) throws IOException;
+    }
+
+    private static PdfExporter instance;
+
+    private final Context context;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Map<String, Job> jobs = new HashMap<>(); // By complaint ID or report key, main thread only
+
+    private PdfExporter(Context context) {
+        this.context = context.getApplicationContext();
+    }
+
+    public static synchronized PdfExporter getInstance(Context context) {
+        if (instance == null) {
+            instance = new PdfExporter(context);
+        }
+        return instance;
+    }
+
+    /**
+     * Export the complaint to Downloads in the background. A Toast tells the user where the
+     * file went, or why it could not be saved. An unchanged complaint is not rendered again,
+     * see {@link PdfCache}.
+     */
+    public void export(LifecycleOwner owner, Complaint complaint, @Nullable Listener listener) {
+        start(complaint.getId(), PdfGenerator.contentKey(context, complaint),
+                progress -> PdfGenerator.generatePdf(context, complaint, progress), owner, listener);
+    }
+
+    /**
+     * Export the complaints as one multi-page report, see {@link ComplaintReport}. Progress is
+     * available from {@link #progressOf(String)} under {@link #reportKey(String)}.
+     */
+    public void exportReport(LifecycleOwner owner, String title, List<Complaint> complaints, @Nullable Listener listener) {
+        List<Complaint> snapshot = new ArrayList<>(complaints);
+        start(reportKey(title), ComplaintReport.contentKey(title, snapshot),
+                progress -> ComplaintReport.generate(context, title, snapshot, progress), owner, listener);
+    }
+
+    public static String reportKey(String title) {
+        return "report:" + title;
+    }
+
+    // Joins a running job only if it renders the same content; an older one is left to finish
+    private void start(String key, String contentKey, Task task, LifecycleOwner owner, @Nullable Listener listener) {
+        Job job = jobs.get(key);
+        if (job == null || job.cancelled || !job.contentKey.equals(contentKey)) {
+            job = new Job(key, contentKey, task);
+            jobs.put(key, job);
+            executor.execute(job);
+        }
+        job.addOwner(owner, listener);
+    }
+
+    /**
+     * Listen to the running export under key, unless the screen already does. Returns false
+     * if none is running.
+     */
+    public boolean attach(LifecycleOwner owner, String key, Listener listener) {
+        Job job = jobs.get(key);
+        if (job == null || job.cancelled) {
+            return false;
+        }
+        if (!job.listeners.containsKey(owner)) {
+            job.addOwner(owner, listener);
+        }
+        return true;
+    }
+
+    /**
+     * Progress of the export in percent, or -1 if it is not running. Complaints are keyed by ID.
+     */
+    public int progressOf(String key) {
+        Job job = jobs.get(key);
+        return job != null ? job.percent : -1;
+    }
+
+    private class Job implements Runnable, DefaultLifecycleObserver {
+        final String key;
+        final String contentKey;
+        final Task task;
+        final Map<LifecycleOwner, List<Listener>> listeners = new HashMap<>(); // By the screen that asked, main thread only
+        volatile boolean cancelled = false;
+        int percent = 0; // Main thread only
+
+        Job(String key, String contentKey, Task task) {
+            this.key = key;
+            this.contentKey = contentKey;
+            this.task = task;
+        }
+
+        void addOwner(LifecycleOwner owner, @Nullable Listener listener) {
+            List<Listener> ownerListeners = listeners.get(owner);
+            if (ownerListeners == null) {
+                ownerListeners = new ArrayList<>();
+                listeners.put(owner, ownerListeners);
+                owner.getLifecycle().addObserver(this);
+            }
+            if (listener != null) {
+                ownerListeners.add(listener);
+            }
+        }
+
+        // The screen's listeners go with it, so nothing keeps it alive or calls back into it
+        @Override
+        public void onDestroy(@NonNull LifecycleOwner owner) {
+            listeners.remove(owner);
+            owner.getLifecycle().removeObserver(this);
+            if (listeners.isEmpty() && !isChangingConfigurations(owner)) {
+                cancelled = true; // Checked at every progress report
+            }
+        }
+
+        private boolean isChangingConfigurations(LifecycleOwner owner) {
+            return owner instanceof Activity && ((Activity) owner).isChangingConfigurations();
+        }
+
+        @Override
+        public void run() {
+            try {
+                if (cancelled) {
+                    throw new CancellationException(); // Cancelled while queued
+                }
+                String fileName = task.run(done -> {
+                    if (cancelled) {
+                        throw new CancellationException();
+                    }
+                    mainHandler.post(() -> reportProgress(done));
+                });
+                mainHandler.post(() -> finish("PDF saved to Downloads: " + fileName, true));
+            } catch (CancellationException e) {
+                mainHandler.post(() -> finish(null, false));
+            } catch (Exception e) {
+                Log.e("PdfExporter", "Error exporting PDF", e);
+                mainHandler.post(() -> finish("Error: " + e.getMessage(), false));
+            }
+        }
+
+        private void reportProgress(int percent) {
+            this.percent = percent;
+            for (List<Listener> ownerListeners : listeners.values()) {
+                for (Listener listener : ownerListeners) {
+                    listener.onProgress(percent);
+                }
+            }
+        }
+
+        private void finish(@Nullable String message, boolean saved) {
+            if (jobs.get(key) == this) {
+                jobs.remove(key);
+            }
+            for (LifecycleOwner owner : listeners.keySet()) {
+                owner.getLifecycle().removeObserver(this);
+            }
+            if (message != null) {
+                Toast.makeText(context, message, saved ? Toast.LENGTH_LONG : Toast.LENGTH_SHORT).show();
+            }
+            for (List<Listener> ownerListeners : listeners.values()) {
+                for (Listener listener : ownerListeners) {
+                    listener.onFinished(saved);
+                }
+            }
+            listeners.clear();
+        }
+    }
+}
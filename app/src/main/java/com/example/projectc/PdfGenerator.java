@@ -2,137 +2,161 @@ package com.example.projectc;
 
 import android.content.ContentValues;
 import android.content.Context;
-import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
-import android.graphics.Canvas;
-import android.graphics.Color;
-import android.graphics.Matrix;
 import android.graphics.Paint;
-import android.graphics.Typeface;
-import android.graphics.pdf.PdfDocument;
 import android.net.Uri;
 import android.os.Build;
 import android.os.Environment;
+import android.os.SystemClock;
 import android.provider.MediaStore;
 import android.util.Log;
-import android.widget.Toast;
+
+import androidx.annotation.WorkerThread;
 
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 
+/**
+ * Renders a complaint onto A4 pages and saves it to Downloads. Rendering and saving block,
+ * so this is called from a background thread; {@link PdfExporter} schedules it.
+ */
 public class PdfGenerator {
 
-    private static final int PAGE_WIDTH = 595;
-    private static final int PAGE_HEIGHT = 842;
-    private static final int MARGIN = 40;
-    private static final int HEADER_HEIGHT = 100;
+    /**
+     * Told how far an export has got. Throwing {@link java.util.concurrent.CancellationException}
+     * from it stops the export before anything is saved.
+     */
+    public interface ProgressListener {
+        void onProgress(int percent);
+    }
+
+    // A4 in points; shared with the other PDF classes
+    static final int PAGE_WIDTH = 595;
+    static final int PAGE_HEIGHT = 842;
+    static final int MARGIN = 40;
+    static final int HEADER_HEIGHT = 100;
     private static final int FOOTER_HEIGHT = 50;
     private static final int BASE_ROW_HEIGHT = 30;
     private static final int LABEL_WIDTH = 180;
     private static final int VALUE_WIDTH = 340;
     private static final int CELL_PADDING = 10;
     private static final int LINE_HEIGHT = 14;
-    private static final int WATERMARK_SIZE = 400;
 
-    public static void generatePdf(Context context, Complaint complaint) {
+    /**
+     * How complaint PDFs are written. {@link #COMPACT} files are a fraction of the size, but
+     * its fonts only cover Western European text; complaints with anything else are written
+     * with {@link #PDF_DOCUMENT} whichever is selected. PDF_DOCUMENT is the default; COMPACT
+     * is switched on from the debug setting on the super admin dashboard.
+     */
+    public enum Backend {
+        PDF_DOCUMENT,
+        COMPACT
+    }
+
+    private static final String PREFS_NAME = "PdfPrefs";
+    private static volatile Backend backend; // Read from preferences on first use
+
+    public static Backend getBackend(Context context) {
+        if (backend == null) {
+            String saved = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE)
+                    .getString("backend", Backend.PDF_DOCUMENT.name());
+            try {
+                backend = Backend.valueOf(saved);
+            } catch (IllegalArgumentException e) {
+                backend = Backend.PDF_DOCUMENT; // Saved by a version with other backends
+            }
+        }
+        return backend;
+    }
+
+    /**
+     * Select the backend for later exports, and keep it across restarts.
+     */
+    public static void setBackend(Context context, Backend backend) {
+        PdfGenerator.backend = backend;
+        context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE).edit()
+                .putString("backend", backend.name())
+                .apply();
+    }
+
+    /**
+     * Save the complaint's PDF to Downloads. It is rendered only if {@link PdfCache} has no
+     * copy of exactly this content; either way the cached file is what gets saved. The size
+     * and time taken to render are logged; with debug logging on for "PdfGenerator", the
+     * other backend is timed too for comparison.
+     *
+     * @return the saved file's name
+     */
+    @WorkerThread
+    public static String generatePdf(Context context, Complaint complaint, ProgressListener progress) throws IOException {
 
         // 1. First check if storage is available
         if (!Environment.getExternalStorageState().equals(Environment.MEDIA_MOUNTED)) {
-            Toast.makeText(context, "Storage not available", Toast.LENGTH_SHORT).show();
-            return; // Exit if no storage
+            throw new IOException("Storage not available");
         }
 
-        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.Q) {
-            // Only do this check for older Android versions
-            if (!Environment.getExternalStorageState().equals(Environment.MEDIA_MOUNTED)) {
-                Toast.makeText(context, "Storage not available", Toast.LENGTH_SHORT).show();
-                return;
-            }
+        Map<String, String> complaintData = complaintData(complaint);
+        Backend selected = getBackend(context);
+        String contentKey = contentKey(complaintData, selected);
+        String fileName = "Complaint_" + complaint.getId() + "_" +
+                new SimpleDateFormat("yyyyMMdd_HHmmss", Locale.getDefault()).format(System.currentTimeMillis()) + ".pdf";
+        PdfCache cache = PdfCache.getInstance(context);
+        File rendered = cache.get(complaint.getId(), contentKey);
+        if (rendered == null) {
+            rendered = render(context, selected, complaint.getId(), contentKey, complaintData, progress);
         }
 
-        PdfDocument document = new PdfDocument();
-        PdfDocument.PageInfo pageInfo = new PdfDocument.PageInfo.Builder(PAGE_WIDTH, PAGE_HEIGHT, 1).create();
-        PdfDocument.Page page = document.startPage(pageInfo);
-        Canvas canvas = page.getCanvas();
-
-        // Paint setup
-        Paint headerPaint = new Paint();
-        headerPaint.setColor(Color.rgb(33, 150, 243));
-        headerPaint.setStyle(Paint.Style.FILL);
-
-        Paint titlePaint = new Paint();
-        titlePaint.setColor(Color.WHITE);
-        titlePaint.setTextSize(24);
-        titlePaint.setTypeface(Typeface.create(Typeface.DEFAULT, Typeface.BOLD));
-        titlePaint.setTextAlign(Paint.Align.CENTER);
-
-        Paint collegePaint = new Paint();
-        collegePaint.setColor(Color.WHITE);
-        collegePaint.setTextSize(16);
-        collegePaint.setTypeface(Typeface.create(Typeface.DEFAULT, Typeface.BOLD));
-        collegePaint.setTextAlign(Paint.Align.CENTER);
-
-        Paint subtitlePaint = new Paint();
-        subtitlePaint.setColor(Color.WHITE);
-        subtitlePaint.setTextSize(14);
-        subtitlePaint.setTextAlign(Paint.Align.CENTER);
-
-        Paint labelPaint = new Paint();
-        labelPaint.setColor(Color.BLACK);
-        labelPaint.setTextSize(12);
-        labelPaint.setTypeface(Typeface.create(Typeface.DEFAULT, Typeface.BOLD));
-
-        Paint valuePaint = new Paint();
-        valuePaint.setColor(Color.BLACK);
-        valuePaint.setTextSize(12);
-
-        Paint borderPaint = new Paint();
-        borderPaint.setColor(Color.rgb(200, 200, 200));
-        borderPaint.setStyle(Paint.Style.STROKE);
-        borderPaint.setStrokeWidth(0.5f);
-
-        Paint headerRowPaint = new Paint();
-        headerRowPaint.setColor(Color.argb(150, 207, 228, 250));
-        headerRowPaint.setStyle(Paint.Style.FILL);
-
-        Paint oddRowPaint = new Paint();
-        oddRowPaint.setColor(Color.argb(100, 255, 255, 255));
-        oddRowPaint.setStyle(Paint.Style.FILL);
-
-        Paint evenRowPaint = new Paint();
-        evenRowPaint.setColor(Color.argb(100, 245, 245, 245));
-        evenRowPaint.setStyle(Paint.Style.FILL);
-
-        // Watermark
-        drawWatermark(canvas, context);
-
-        // Header
-        canvas.drawRect(0, 0, PAGE_WIDTH, HEADER_HEIGHT, headerPaint);
-
-        // Draw top-left logo
-        try {
-            Bitmap logo = BitmapFactory.decodeResource(context.getResources(), R.drawable.gceklogo);
-            float logoHeight = 60f;
-            float logoWidth = (logo.getWidth() * logoHeight) / logo.getHeight();
-            Bitmap scaledLogo = Bitmap.createScaledBitmap(logo, (int) logoWidth, (int) logoHeight, true);
-            canvas.drawBitmap(scaledLogo, MARGIN, (HEADER_HEIGHT - logoHeight) / 2, null);
-        } catch (Exception e) {
-            Log.e("PdfGenerator", "Logo draw error", e);
+        // Last chance to cancel; once writing starts the file is completed
+        progress.onProgress(90);
+        File source = rendered;
+        savePdf(context, fileName, out -> copy(source, out));
+        return fileName; // No progress after the save: a cancel there would hide a saved file
+    }
+
+    // Draws the complaint into the cache and returns the cached file
+    private static File render(Context context, Backend selected, String complaintId, String contentKey,
+                               Map<String, String> complaintData, ProgressListener progress) throws IOException {
+        long start = SystemClock.elapsedRealtime();
+        PdfTemplate template = PdfTemplate.getInstance(context);
+        Backend used = backendFor(selected, complaintData);
+        progress.onProgress(10);
+
+        try (PdfSurface surface = newSurface(used)) {
+            drawComplaint(surface, template, complaintData, progress);
+            File rendered = PdfCache.getInstance(context).put(complaintId, contentKey, surface::writeTo);
+            long bytes = rendered.length();
+            long millis = SystemClock.elapsedRealtime() - start;
+            Log.i("PdfGenerator", rendered.getName() + ": " + bytes + " bytes in " + millis + " ms (" + used + ")");
+            if (Log.isLoggable("PdfGenerator", Log.DEBUG)) {
+                logComparison(template, complaintData, used, bytes, millis);
+            }
+            return rendered;
         }
+    }
 
-        // Header text (centered)
-        float centerX = PAGE_WIDTH / 2f;
-        canvas.drawText("Government College of Engineering, Karad", centerX, HEADER_HEIGHT / 2f - 10, collegePaint);
-        canvas.drawText("Complaint Details", centerX, HEADER_HEIGHT / 2f + 15, titlePaint);
-        canvas.drawText("GCEK Electrifix App", centerX, HEADER_HEIGHT / 2f + 35, subtitlePaint);
+    /**
+     * Key of everything the complaint's PDF shows, and how it is drawn.
+     */
+    static String contentKey(Context context, Complaint complaint) {
+        return contentKey(complaintData(complaint), getBackend(context));
+    }
+
+    private static String contentKey(Map<String, String> complaintData, Backend backend) {
+        List<String> values = new ArrayList<>(complaintData.values());
+        values.add(backend.name());
+        return ComplaintIds.digestOf(values);
+    }
 
-        // Complaint data
+    static Map<String, String> complaintData(Complaint complaint) {
         Map<String, String> complaintData = new LinkedHashMap<>();
         complaintData.put("Complaint ID", complaint.getId());
         complaintData.put("Description", complaint.getDescription());
@@ -146,128 +170,222 @@ public class PdfGenerator {
         complaintData.put("Priority", complaint.getPriority());
         complaintData.put("Location", complaint.getLocation());
         complaintData.put("Remarks", complaint.getRemarks());
+        return complaintData;
+    }
 
-        int currentY = HEADER_HEIGHT + 30;
-
-        // Table Header
-        canvas.drawRect(MARGIN, currentY, MARGIN + LABEL_WIDTH, currentY + BASE_ROW_HEIGHT, headerRowPaint);
-        canvas.drawRect(MARGIN + LABEL_WIDTH, currentY, MARGIN + LABEL_WIDTH + VALUE_WIDTH, currentY + BASE_ROW_HEIGHT, headerRowPaint);
-        canvas.drawText("Field", MARGIN + CELL_PADDING, currentY + BASE_ROW_HEIGHT - 10, labelPaint);
-        canvas.drawText("Value", MARGIN + LABEL_WIDTH + CELL_PADDING, currentY + BASE_ROW_HEIGHT - 10, labelPaint);
-        currentY += BASE_ROW_HEIGHT;
+    // The selected backend, unless the compact one cannot show the complaint's text
+    static Backend backendFor(Backend selected, Map<String, String> complaintData) {
+        return selected == Backend.COMPACT && canEncode(complaintData) ? Backend.COMPACT : Backend.PDF_DOCUMENT;
+    }
 
-        // Rows
-        int rowCount = 0;
+    private static boolean canEncode(Map<String, String> complaintData) {
         for (Map.Entry<String, String> entry : complaintData.entrySet()) {
-            Paint rowPaint = (rowCount % 2 == 0) ? evenRowPaint : oddRowPaint;
-            String label = entry.getKey();
-            String value = entry.getValue() != null ? entry.getValue() : "";
-
-            int requiredHeight = BASE_ROW_HEIGHT;
-            int extraLines = estimateLineCount(value, valuePaint, VALUE_WIDTH - 2 * CELL_PADDING);
-            if (extraLines > 1) requiredHeight += (extraLines - 1) * LINE_HEIGHT;
-
-            canvas.drawRect(MARGIN, currentY, MARGIN + LABEL_WIDTH + VALUE_WIDTH, currentY + requiredHeight, rowPaint);
-            canvas.drawRect(MARGIN, currentY, MARGIN + LABEL_WIDTH, currentY + requiredHeight, borderPaint);
-            canvas.drawRect(MARGIN + LABEL_WIDTH, currentY, MARGIN + LABEL_WIDTH + VALUE_WIDTH, currentY + requiredHeight, borderPaint);
-
-            canvas.drawText(label, MARGIN + CELL_PADDING, currentY + 18, labelPaint);
-            drawMultilineText(canvas, valuePaint, value, MARGIN + LABEL_WIDTH + CELL_PADDING, currentY + 18, VALUE_WIDTH - 2 * CELL_PADDING, LINE_HEIGHT);
-            currentY += requiredHeight;
-            rowCount++;
+            if (!CompactPdfWriter.canEncode(entry.getKey()) || !CompactPdfWriter.canEncode(entry.getValue())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static PdfSurface newSurface(Backend backend) {
+        return backend == Backend.COMPACT ? new CompactPdfWriter() : new PdfDocumentSurface();
+    }
+
+    // The header and the field table, continued onto new pages as it overflows
+    private static void drawComplaint(PdfSurface surface, PdfTemplate template, Map<String, String> complaintData,
+                                      ProgressListener progress) throws IOException {
+        Paint valuePaint = template.valuePaint;
+        surface.startPage(1);
+        template.drawChrome(surface, true);
+        progress.onProgress(30);
+
+        // Lay out every value once; the same lines give the row heights and get drawn
+        int valueWidth = VALUE_WIDTH - 2 * CELL_PADDING;
+        List<String> labels = new ArrayList<>(complaintData.keySet());
+        List<List<String>> values = new ArrayList<>(complaintData.size());
+        for (String value : complaintData.values()) {
+            List<String> lines = wrapLines(value, (text, start, end, maxWidth) ->
+                    surface.breakText(text, start, end, valuePaint, maxWidth), valueWidth);
+            if (lines.isEmpty()) lines.add("");
+            values.add(lines);
         }
 
-        // Footer
-        Paint footerPaint = new Paint();
-        footerPaint.setColor(Color.DKGRAY);
-        footerPaint.setTextSize(10);
-        footerPaint.setTextAlign(Paint.Align.CENTER);
         String footerText = "Generated on " + new SimpleDateFormat("dd/MM/yyyy HH:mm", Locale.getDefault()).format(System.currentTimeMillis());
-        canvas.drawText(footerText, PAGE_WIDTH / 2f, PAGE_HEIGHT - 20, footerPaint);
 
-        document.finishPage(page);
+        int pageNumber = 1;
+        int bodyBottom = PAGE_HEIGHT - FOOTER_HEIGHT;
+        int currentY = drawTableHeader(surface, HEADER_HEIGHT + 30, template);
+        // Lines a row can hold on a continuation page, below its table header
+        int freshPageLines = linesFitting(bodyBottom - (MARGIN + BASE_ROW_HEIGHT));
+
+        // Rows, continued onto new pages as they overflow
+        for (int row = 0; row < labels.size(); row++) {
+            Paint rowPaint = (row % 2 == 0) ? template.evenRowPaint : template.oddRowPaint;
+            List<String> lines = values.get(row);
+            int drawn = 0;
+            while (drawn < lines.size()) {
+                int remaining = lines.size() - drawn;
+                int fitting = linesFitting(bodyBottom - currentY);
+                int count;
+                if (remaining <= fitting) {
+                    count = remaining;
+                } else if (fitting > 0 && remaining > freshPageLines) {
+                    count = fitting; // Too tall for any page; split it here
+                } else {
+                    count = 0; // Keep the row whole on the next page, where it fits
+                }
 
-        // Save
-        String fileName = "Complaint_" + complaint.getId() + "_" +
-                new SimpleDateFormat("yyyyMMdd_HHmmss", Locale.getDefault()).format(System.currentTimeMillis()) + ".pdf";
-        savePdfDocument(context, document, fileName);
-    }
+                if (count > 0) {
+                    String label = drawn == 0 ? labels.get(row) : labels.get(row) + " (cont.)";
+                    int rowHeight = BASE_ROW_HEIGHT + (count - 1) * LINE_HEIGHT;
+                    surface.drawRect(MARGIN, currentY, MARGIN + LABEL_WIDTH + VALUE_WIDTH, currentY + rowHeight, rowPaint);
+                    surface.drawRect(MARGIN, currentY, MARGIN + LABEL_WIDTH, currentY + rowHeight, template.borderPaint);
+                    surface.drawRect(MARGIN + LABEL_WIDTH, currentY, MARGIN + LABEL_WIDTH + VALUE_WIDTH, currentY + rowHeight, template.borderPaint);
+
+                    surface.drawText(label, MARGIN + CELL_PADDING, currentY + 18, template.labelPaint);
+                    int baseline = currentY + 18;
+                    for (int i = drawn; i < drawn + count; i++) {
+                        surface.drawText(lines.get(i), MARGIN + LABEL_WIDTH + CELL_PADDING, baseline, valuePaint);
+                        baseline += LINE_HEIGHT;
+                    }
+                    currentY += rowHeight;
+                    drawn += count;
+                }
 
-    private static void drawWatermark(Canvas canvas, Context context) {
-        try {
-            Bitmap originalLogo = BitmapFactory.decodeResource(context.getResources(), R.drawable.gceklogo);
-            float scale = Math.min((float) WATERMARK_SIZE / originalLogo.getWidth(), (float) WATERMARK_SIZE / originalLogo.getHeight());
-            Matrix matrix = new Matrix();
-            matrix.postScale(scale, scale);
-
-            Bitmap scaledLogo = Bitmap.createBitmap(originalLogo, 0, 0, originalLogo.getWidth(), originalLogo.getHeight(), matrix, true);
-            int centerX = (PAGE_WIDTH - scaledLogo.getWidth()) / 2;
-            int centerY = (PAGE_HEIGHT - scaledLogo.getHeight()) / 3;
-
-            Paint watermarkPaint = new Paint();
-            watermarkPaint.setAlpha(20);
-            canvas.drawBitmap(scaledLogo, centerX, centerY, watermarkPaint);
-        } catch (Exception e) {
-            Log.e("PdfGenerator", "Error drawing watermark", e);
-            Paint textWatermarkPaint = new Paint();
-            textWatermarkPaint.setColor(Color.LTGRAY);
-            textWatermarkPaint.setTextSize(80);
-            textWatermarkPaint.setAlpha(15);
-            textWatermarkPaint.setTextAlign(Paint.Align.CENTER);
-            textWatermarkPaint.setTypeface(Typeface.create(Typeface.DEFAULT, Typeface.BOLD));
-            canvas.save();
-            canvas.rotate(-45, PAGE_WIDTH / 2f, PAGE_HEIGHT / 2f);
-            canvas.drawText("GCEK KARAD", PAGE_WIDTH / 2f, PAGE_HEIGHT / 2f, textWatermarkPaint);
-            canvas.restore();
+                if (drawn < lines.size()) {
+                    drawFooter(surface, template, footerText, pageNumber);
+                    surface.finishPage();
+                    pageNumber++;
+                    surface.startPage(pageNumber);
+                    template.drawChrome(surface, false);
+                    currentY = drawTableHeader(surface, MARGIN, template);
+                }
+            }
+            progress.onProgress(30 + 50 * (row + 1) / labels.size());
         }
+
+        // Footer
+        drawFooter(surface, template, footerText, pageNumber);
+        surface.finishPage();
     }
 
-    private static void drawMultilineText(Canvas canvas, Paint paint, String text, int x, int y, int maxWidth, int lineHeight) {
-        if (text == null || text.isEmpty()) return;
-        String[] lines = text.split("\n");
-        for (String line : lines) {
-            String[] words = line.split(" ");
-            StringBuilder currentLine = new StringBuilder();
-            for (String word : words) {
-                String testLine = currentLine.length() == 0 ? word : currentLine + " " + word;
-                if (paint.measureText(testLine) <= maxWidth) {
-                    currentLine = new StringBuilder(testLine);
-                } else {
-                    canvas.drawText(currentLine.toString(), x, y, paint);
-                    y += lineHeight;
-                    currentLine = new StringBuilder(word);
+    // Renders with the backend that was not used, without saving, and logs both
+    private static void logComparison(PdfTemplate template, Map<String, String> complaintData,
+                                      Backend used, long bytes, long millis) {
+        Backend other = used == Backend.COMPACT ? Backend.PDF_DOCUMENT : Backend.COMPACT;
+        if (other == Backend.COMPACT && !canEncode(complaintData)) {
+            return;
+        }
+        long start = SystemClock.elapsedRealtime();
+        try (PdfSurface surface = newSurface(other)) {
+            drawComplaint(surface, template, complaintData, percent -> { });
+            CompactPdfWriter.CountingOutputStream out = new CompactPdfWriter.CountingOutputStream(new OutputStream() {
+                @Override
+                public void write(int b) {
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) {
                 }
+            });
+            surface.writeTo(out);
+            Log.d("PdfGenerator", used + ": " + bytes + " bytes, " + millis + " ms; "
+                    + other + ": " + out.count + " bytes, " + (SystemClock.elapsedRealtime() - start) + " ms (not saved)");
+        } catch (IOException e) {
+            Log.w("PdfGenerator", "Could not compare PDF backends", e);
+        }
+    }
+
+    // The "Field / Value" heading row; returns where the first row goes
+    private static int drawTableHeader(PdfSurface surface, int y, PdfTemplate template) {
+        surface.drawRect(MARGIN, y, MARGIN + LABEL_WIDTH, y + BASE_ROW_HEIGHT, template.headerRowPaint);
+        surface.drawRect(MARGIN + LABEL_WIDTH, y, MARGIN + LABEL_WIDTH + VALUE_WIDTH, y + BASE_ROW_HEIGHT, template.headerRowPaint);
+        surface.drawText("Field", MARGIN + CELL_PADDING, y + BASE_ROW_HEIGHT - 10, template.labelPaint);
+        surface.drawText("Value", MARGIN + LABEL_WIDTH + CELL_PADDING, y + BASE_ROW_HEIGHT - 10, template.labelPaint);
+        return y + BASE_ROW_HEIGHT;
+    }
+
+    private static void drawFooter(PdfSurface surface, PdfTemplate template, String footerText, int pageNumber) {
+        surface.drawText(footerText + "  -  Page " + pageNumber, PAGE_WIDTH / 2f, PAGE_HEIGHT - 20, template.footerPaint);
+    }
+
+    // Value lines a row can hold in the given height; a row of n lines is BASE_ROW_HEIGHT + (n - 1) * LINE_HEIGHT
+    private static int linesFitting(int height) {
+        return height < BASE_ROW_HEIGHT ? 0 : 1 + (height - BASE_ROW_HEIGHT) / LINE_HEIGHT;
+    }
+
+    // How many characters of text, from start, fit in maxWidth
+    interface LineBreaker {
+        int breakText(String text, int start, int end, float maxWidth);
+    }
+
+    static List<String> wrapLines(String text, Paint paint, int maxWidth) {
+        return wrapLines(text, (t, start, end, width) -> paint.breakText(t, start, end, true, width, null), maxWidth);
+    }
+
+    /**
+     * Text broken into lines no wider than maxWidth, in one pass: the breaker (such as
+     * {@link Paint#breakText}) finds how much fits, and the line ends at the last space within
+     * it. A word wider than a whole line is split where it overflows. Explicit line breaks are kept.
+     */
+    static List<String> wrapLines(String text, LineBreaker breaker, int maxWidth) {
+        List<String> result = new ArrayList<>();
+        if (text == null || text.isEmpty()) return result;
+        int paragraphStart = 0;
+        while (paragraphStart < text.length()) {
+            int paragraphEnd = text.indexOf('\n', paragraphStart);
+            if (paragraphEnd < 0) paragraphEnd = text.length();
+            if (paragraphEnd == paragraphStart) {
+                result.add(""); // Blank line
             }
-            if (currentLine.length() > 0) {
-                canvas.drawText(currentLine.toString(), x, y, paint);
-                y += lineHeight;
+
+            int lineStart = paragraphStart;
+            while (lineStart < paragraphEnd) {
+                int fits = breaker.breakText(text, lineStart, paragraphEnd, maxWidth);
+                int lineEnd = lineStart + Math.max(fits, 1); // Always progress, even if one character is too wide
+                int next = lineEnd;
+                if (lineEnd < paragraphEnd && text.charAt(lineEnd) != ' ') {
+                    int space = text.lastIndexOf(' ', lineEnd - 1);
+                    if (space > lineStart) {
+                        lineEnd = space; // Break between words; otherwise the word is split
+                        next = space;
+                    }
+                }
+                int trimmedEnd = lineEnd;
+                while (trimmedEnd > lineStart && text.charAt(trimmedEnd - 1) == ' ') trimmedEnd--;
+                result.add(text.substring(lineStart, trimmedEnd));
+                while (next < paragraphEnd && text.charAt(next) == ' ') next++; // Spaces at the break are dropped
+                lineStart = next;
             }
+            paragraphStart = paragraphEnd + 1;
         }
+        return result;
     }
 
-    private static int estimateLineCount(String text, Paint paint, int maxWidth) {
-        if (text == null || text.isEmpty()) return 1;
-        String[] lines = text.split("\n");
-        int totalLines = 0;
-        for (String line : lines) {
-            String[] words = line.split(" ");
-            StringBuilder currentLine = new StringBuilder();
-            for (String word : words) {
-                String testLine = currentLine.length() == 0 ? word : currentLine + " " + word;
-                if (paint.measureText(testLine) <= maxWidth) {
-                    currentLine = new StringBuilder(testLine);
-                } else {
-                    totalLines++;
-                    currentLine = new StringBuilder(word);
-                }
+    private static void copy(File file, OutputStream out) throws IOException {
+        try (InputStream in = new FileInputStream(file)) {
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
             }
-            if (currentLine.length() > 0) totalLines++;
         }
-        return Math.max(totalLines, 1);
     }
 
-    private static void savePdfDocument(Context context, PdfDocument document, String fileName) {
+    // Writes out a finished PDF, e.g. PdfDocument::writeTo
+    interface PdfSource {
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    /**
+     * Save the PDF to Downloads.
+     *
+     * @return the file's size in bytes
+     */
+    static long savePdf(Context context, String fileName, PdfSource pdf) throws IOException {
         OutputStream outputStream = null;
+        Uri uri = null;
+        File file = null;
         try {
             if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
                 // Use MediaStore API for Android 10+
@@ -276,7 +394,7 @@ public class PdfGenerator {
                 values.put(MediaStore.Downloads.MIME_TYPE, "application/pdf");
                 values.put(MediaStore.Downloads.RELATIVE_PATH, "Download/");
 
-                Uri uri = context.getContentResolver().insert(
+                uri = context.getContentResolver().insert(
                         MediaStore.Downloads.EXTERNAL_CONTENT_URI, values);
 
                 if (uri != null) {
@@ -290,22 +408,34 @@ public class PdfGenerator {
                     downloadsDir.mkdirs();
                 }
 
-                File file = new File(downloadsDir, fileName);
+                file = new File(downloadsDir, fileName);
                 outputStream = new FileOutputStream(file);
             }
 
-            if (outputStream != null) {
-                document.writeTo(outputStream);
-                Toast.makeText(context, "PDF saved to Downloads: " + fileName,
-                        Toast.LENGTH_LONG).show();
-            } else {
-                Toast.makeText(context, "Failed to create PDF file",
-                        Toast.LENGTH_SHORT).show();
+            if (outputStream == null) {
+                throw new IOException("Failed to create PDF file");
             }
-        } catch (Exception e) {
+            CompactPdfWriter.CountingOutputStream counting = new CompactPdfWriter.CountingOutputStream(outputStream);
+            pdf.writeTo(counting);
+            counting.flush();
+            return counting.count;
+        } catch (IOException | RuntimeException e) {
             Log.e("PdfGenerator", "Error saving PDF", e);
-            Toast.makeText(context, "Error: " + e.getMessage(),
-                    Toast.LENGTH_SHORT).show();
+            // Don't leave an empty or partly written entry in Downloads
+            if (uri != null) {
+                context.getContentResolver().delete(uri, null, null);
+            }
+            if (file != null) {
+                if (outputStream != null) {
+                    try {
+                        outputStream.close();
+                    } catch (IOException ignored) {
+                        // Deleted either way
+                    }
+                }
+                file.delete();
+            }
+            throw e;
         } finally {
             try {
                 if (outputStream != null) {
@@ -314,7 +444,6 @@ public class PdfGenerator {
             } catch (IOException e) {
                 e.printStackTrace();
             }
-            document.close();
         }
     }
 }
@@ -0,0 +1,56 @@
+package com.example.projectc;
+
+import android.graphics.Bitmap;
+import android.graphics.Paint;
+
+import androidx.annotation.Nullable;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * What {@link PdfGenerator} draws a complaint onto: {@link PdfDocumentSurface}, backed by
+ * Android's PdfDocument, or {@link CompactPdfWriter}, which writes the PDF objects itself.
+ * Coordinates are in points from the top-left of the page, as on a Canvas, and styles come
+ * from the Paints in {@link PdfTemplate}.
+ */
+public interface PdfSurface extends Closeable {
+
+    /**
+     * Start the next, blank page; {@link PdfTemplate#drawChrome} adds the watermark and header.
+     */
+    void startPage(int pageNumber);
+
+    /**
+     * Finish the open page; a surface that streams its output writes the page out here.
+     */
+    void finishPage() throws IOException;
+
+    void drawRect(float left, float top, float right, float bottom, Paint paint);
+
+    void drawText(String text, float x, float y, Paint paint);
+
+    /**
+     * Draw text turned by the given degrees about (x, y), as after Canvas.rotate.
+     */
+    void drawRotatedText(String text, float x, float y, float degrees, Paint paint);
+
+    /**
+     * Draw the bitmap at its pixel size in points, as a PdfDocument canvas would.
+     */
+    void drawBitmap(Bitmap bitmap, float left, float top, @Nullable Paint paint);
+
+    /**
+     * How many characters of text, from start, fit in maxWidth when drawn with the paint.
+     */
+    int breakText(String text, int start, int end, Paint paint, float maxWidth);
+
+    /**
+     * Write the finished pages out as a PDF file.
+     */
+    void writeTo(OutputStream out) throws IOException;
+
+    @Override
+    void close();
+}
@@ -0,0 +1,198 @@
+package com.example.projectc;
+
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.res.Configuration;
+import android.graphics.Bitmap;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Picture;
+import android.graphics.Typeface;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * What every exported page shares, built once per process: the paints used to draw the
+ * complaint table, and the fixed page chrome (watermark, header band with the logo and
+ * college title), drawn onto any {@link PdfSurface}. The logo bitmaps belong to
+ * {@link PdfBitmapCache}.
+ *
+ * For PdfDocument pages the chrome is recorded into {@link Picture}s once and replayed, so
+ * each page only costs its table. The recordings hold the bitmaps, so they are dropped with
+ * the cache's on a memory trim and recorded again by the next export.
+ *
+ * The paints are shared by every export and must not be modified.
+ */
+public class PdfTemplate implements ComponentCallbacks2 {
+
+    private static final int WATERMARK_SIZE = 400;
+    private static final int LOGO_HEIGHT = 60;
+
+    private static final String COLLEGE = "Government College of Engineering, Karad";
+    private static final String TITLE = "Complaint Details";
+    private static final String SUBTITLE = "GCEK Electrifix App";
+    private static final String TEXT_WATERMARK = "GCEK KARAD";
+
+    private static PdfTemplate instance;
+
+    final Paint headerPaint = new Paint();
+    final Paint titlePaint = new Paint();
+    final Paint collegePaint = new Paint();
+    final Paint subtitlePaint = new Paint();
+    final Paint watermarkPaint = new Paint();
+    final Paint textWatermarkPaint = new Paint();
+    final Paint labelPaint = new Paint();
+    final Paint valuePaint = new Paint();
+    final Paint borderPaint = new Paint();
+    final Paint headerRowPaint = new Paint();
+    final Paint oddRowPaint = new Paint();
+    final Paint evenRowPaint = new Paint();
+    final Paint footerPaint = new Paint();
+
+    private final Context context;
+    @Nullable
+    private Picture firstPageChrome; // Watermark and header
+    @Nullable
+    private Picture pageChrome; // Watermark only, for continuation pages
+
+    private PdfTemplate(Context context) {
+        this.context = context;
+        headerPaint.setColor(Color.rgb(33, 150, 243));
+        headerPaint.setStyle(Paint.Style.FILL);
+
+        titlePaint.setColor(Color.WHITE);
+        titlePaint.setTextSize(24);
+        titlePaint.setTypeface(Typeface.create(Typeface.DEFAULT, Typeface.BOLD));
+        titlePaint.setTextAlign(Paint.Align.CENTER);
+
+        collegePaint.setColor(Color.WHITE);
+        collegePaint.setTextSize(16);
+        collegePaint.setTypeface(Typeface.create(Typeface.DEFAULT, Typeface.BOLD));
+        collegePaint.setTextAlign(Paint.Align.CENTER);
+
+        subtitlePaint.setColor(Color.WHITE);
+        subtitlePaint.setTextSize(14);
+        subtitlePaint.setTextAlign(Paint.Align.CENTER);
+
+        watermarkPaint.setAlpha(20);
+
+        textWatermarkPaint.setColor(Color.LTGRAY);
+        textWatermarkPaint.setTextSize(80);
+        textWatermarkPaint.setAlpha(15);
+        textWatermarkPaint.setTextAlign(Paint.Align.CENTER);
+        textWatermarkPaint.setTypeface(Typeface.create(Typeface.DEFAULT, Typeface.BOLD));
+
+        labelPaint.setColor(Color.BLACK);
+        labelPaint.setTextSize(12);
+        labelPaint.setTypeface(Typeface.create(Typeface.DEFAULT, Typeface.BOLD));
+
+        valuePaint.setColor(Color.BLACK);
+        valuePaint.setTextSize(12);
+
+        borderPaint.setColor(Color.rgb(200, 200, 200));
+        borderPaint.setStyle(Paint.Style.STROKE);
+        borderPaint.setStrokeWidth(0.5f);
+
+        headerRowPaint.setColor(Color.argb(150, 207, 228, 250));
+        headerRowPaint.setStyle(Paint.Style.FILL);
+
+        oddRowPaint.setColor(Color.argb(100, 255, 255, 255));
+        oddRowPaint.setStyle(Paint.Style.FILL);
+
+        evenRowPaint.setColor(Color.argb(100, 245, 245, 245));
+        evenRowPaint.setStyle(Paint.Style.FILL);
+
+        footerPaint.setColor(Color.DKGRAY);
+        footerPaint.setTextSize(10);
+        footerPaint.setTextAlign(Paint.Align.CENTER);
+    }
+
+    public static synchronized PdfTemplate getInstance(Context context) {
+        if (instance == null) {
+            Context appContext = context.getApplicationContext();
+            instance = new PdfTemplate(appContext);
+            appContext.registerComponentCallbacks(instance);
+        }
+        return instance;
+    }
+
+    /**
+     * Draw the watermark and, on the first page, the header band; the table starts below
+     * {@link PdfGenerator#HEADER_HEIGHT}.
+     */
+    void drawChrome(PdfSurface surface, boolean firstPage) {
+        if (surface instanceof PdfDocumentSurface) {
+            ((PdfDocumentSurface) surface).drawPicture(recordedChrome(firstPage));
+        } else {
+            // The compact writer embeds each bitmap once and only references it from the page
+            drawChromeOnto(surface, firstPage);
+        }
+    }
+
+    private synchronized Picture recordedChrome(boolean firstPage) {
+        Picture picture = firstPage ? firstPageChrome : pageChrome;
+        if (picture == null) {
+            picture = new Picture();
+            try (PdfDocumentSurface recorder = PdfDocumentSurface.recording(picture)) {
+                drawChromeOnto(recorder, firstPage);
+            }
+            if (firstPage) {
+                firstPageChrome = picture;
+            } else {
+                pageChrome = picture;
+            }
+        }
+        return picture;
+    }
+
+    private void drawChromeOnto(PdfSurface surface, boolean firstPage) {
+        PdfBitmapCache bitmaps = PdfBitmapCache.getInstance(context);
+        Bitmap watermark = bitmaps.get(R.drawable.gceklogo, WATERMARK_SIZE, WATERMARK_SIZE);
+        if (watermark != null) {
+            surface.drawBitmap(watermark, (PdfGenerator.PAGE_WIDTH - watermark.getWidth()) / 2,
+                    (PdfGenerator.PAGE_HEIGHT - watermark.getHeight()) / 3, watermarkPaint);
+        } else {
+            surface.drawRotatedText(TEXT_WATERMARK, PdfGenerator.PAGE_WIDTH / 2f, PdfGenerator.PAGE_HEIGHT / 2f, -45, textWatermarkPaint);
+        }
+        if (!firstPage) {
+            return;
+        }
+
+        surface.drawRect(0, 0, PdfGenerator.PAGE_WIDTH, PdfGenerator.HEADER_HEIGHT, headerPaint);
+
+        // Draw top-left logo
+        Bitmap logo = bitmaps.get(R.drawable.gceklogo, PdfGenerator.PAGE_WIDTH, LOGO_HEIGHT);
+        if (logo != null) {
+            surface.drawBitmap(logo, PdfGenerator.MARGIN, (PdfGenerator.HEADER_HEIGHT - logo.getHeight()) / 2f, null);
+        }
+
+        // Header text (centered)
+        float centerX = PdfGenerator.PAGE_WIDTH / 2f;
+        surface.drawText(COLLEGE, centerX, PdfGenerator.HEADER_HEIGHT / 2f - 10, collegePaint);
+        surface.drawText(TITLE, centerX, PdfGenerator.HEADER_HEIGHT / 2f + 15, titlePaint);
+        surface.drawText(SUBTITLE, centerX, PdfGenerator.HEADER_HEIGHT / 2f + 35, subtitlePaint);
+    }
+
+    public synchronized void clear() {
+        // An export still running records them again for its next page
+        firstPageChrome = null;
+        pageChrome = null;
+    }
+
+    @Override
+    public void onTrimMemory(int level) {
+        if (level >= TRIM_MEMORY_RUNNING_LOW) {
+            clear();
+        }
+    }
+
+    @Override
+    public void onLowMemory() {
+        clear();
+    }
+
+    @Override
+    public void onConfigurationChanged(@NonNull Configuration newConfig) {
+    }
+}
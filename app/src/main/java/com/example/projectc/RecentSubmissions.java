@@ -0,0 +1,102 @@
+package com.example.projectc;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Base64;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+
+/**
+ * Complaint IDs recently submitted from this device, kept in a Bloom filter so an obvious
+ * resubmission can be turned away without a network call or a database read.
+ *
+ * Two filters are kept: new IDs go into the current one, and once it holds
+ * {@link #GENERATION_SIZE} IDs it replaces the previous one and starts over. Lookups check
+ * both, so roughly the last 500 to 1000 submissions are remembered. A Bloom filter cannot
+ * drop a value, so IDs that must be allowed again are kept in a small set that overrides it.
+ */
+public class RecentSubmissions {
+
+    private static final String PREFS_NAME = "RecentSubmissionPrefs";
+    private static final int GENERATION_SIZE = 500;
+    // 8192 bits and 7 hashes keep false positives near 0.1% per full filter
+    private static final int NUM_BITS = 8192;
+    private static final int NUM_HASHES = 7;
+
+    private static RecentSubmissions instance;
+
+    private final SharedPreferences prefs;
+    private BloomFilter current;
+    private BloomFilter previous;
+    private int currentCount;
+    private final Set<String> forgotten;
+
+    public static synchronized RecentSubmissions getInstance(Context context) {
+        if (instance == null) {
+            instance = new RecentSubmissions(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    private RecentSubmissions(Context context) {
+        prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        current = load("current");
+        previous = load("previous");
+        currentCount = prefs.getInt("current_count", 0);
+        forgotten = new HashSet<>(prefs.getStringSet("forgotten", Collections.<String>emptySet()));
+    }
+
+    public synchronized boolean mightContain(String complaintId) {
+        return !forgotten.contains(complaintId)
+                && (current.mightContain(complaintId) || previous.mightContain(complaintId));
+    }
+
+    /**
+     * Allow the complaint to be submitted again, e.g. after an admin removed it.
+     */
+    public synchronized void forget(String complaintId) {
+        if (forgotten.add(complaintId)) {
+            save();
+        }
+    }
+
+    public synchronized void add(String complaintId) {
+        if (currentCount >= GENERATION_SIZE) {
+            previous = current;
+            current = new BloomFilter(NUM_BITS, NUM_HASHES);
+            currentCount = 0;
+            // Only IDs the remaining filters still report need overriding
+            Iterator<String> iterator = forgotten.iterator();
+            while (iterator.hasNext()) {
+                String id = iterator.next();
+                if (!previous.mightContain(id)) {
+                    iterator.remove();
+                }
+            }
+        }
+        current.put(complaintId);
+        currentCount++;
+        forgotten.remove(complaintId);
+        save();
+    }
+
+    private void save() {
+        prefs.edit()
+                .putString("current", Base64.encodeToString(current.toBytes(), Base64.NO_WRAP))
+                .putString("previous", Base64.encodeToString(previous.toBytes(), Base64.NO_WRAP))
+                .putInt("current_count", currentCount)
+                .putStringSet("forgotten", new HashSet<>(forgotten))
+                .apply();
+    }
+
+    private BloomFilter load(String key) {
+        String saved = prefs.getString(key, null);
+        if (saved == null) {
+            return new BloomFilter(NUM_BITS, NUM_HASHES);
+        }
+        return BloomFilter.fromBytes(Base64.decode(saved, Base64.NO_WRAP), NUM_HASHES);
+    }
+}
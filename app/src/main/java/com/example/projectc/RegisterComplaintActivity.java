@@ -2,6 +2,7 @@ package com.example.projectc;
 
 import android.os.Build;
 import android.os.Bundle;
+import android.util.Log;
 import android.widget.ArrayAdapter;
 import android.widget.Button;
 import android.widget.EditText;
@@ -17,7 +18,6 @@ public class RegisterComplaintActivity extends AppCompatActivity {
     private Spinner departmentSpinner, prioritySpinner;
     private EditText typeEditText, contactPersonEditText, phoneEditText, emailEditText, descriptionEditText, locationEditText;
     private Button submitComplaintButton;
-    private FirebaseFirestore db;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -31,9 +31,6 @@ public class RegisterComplaintActivity extends AppCompatActivity {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_register_complaint);
 
-        // Initialize Firestore
-        db = FirebaseFirestore.getInstance();
-
         // Initialize UI elements
         departmentSpinner = findViewById(R.id.departmentSpinner);
         prioritySpinner = findViewById(R.id.prioritySpinner);
@@ -71,33 +68,42 @@ public class RegisterComplaintActivity extends AppCompatActivity {
                 return;
             }
 
-            // Disable the submit button to prevent double clicks
-            submitComplaintButton.setEnabled(false);
-
-            // Check if a complaint already exists for the same email and type
-            db.collection("complaints")
-                    .whereEqualTo("email", email)
-                    .whereEqualTo("type", type)  // Optionally add more fields for unique identification
-                    .get()
-                    .addOnCompleteListener(task -> {
-                        if (task.isSuccessful() && !task.getResult().isEmpty()) {
-                            // If complaint already exists
-                            Toast.makeText(this, "Complaint already registered.", Toast.LENGTH_SHORT).show();
-                            submitComplaintButton.setEnabled(true); // Re-enable the submit button
-                        } else {
-                            // If no existing complaint, create and add the new complaint
-                            Complaint complaint = new Complaint(department, type, contactPerson, phone, email, description, priority, location);
-                            db.collection("complaints").add(complaint)
-                                    .addOnSuccessListener(documentReference -> {
-                                        Toast.makeText(this, "Complaint Registered Successfully!", Toast.LENGTH_SHORT).show();
-                                        submitComplaintButton.setEnabled(true); // Re-enable the submit button after success
-                                    })
-                                    .addOnFailureListener(e -> {
-                                        Toast.makeText(this, "Failed to Register Complaint.", Toast.LENGTH_SHORT).show();
-                                        submitComplaintButton.setEnabled(true); // Re-enable the submit button after failure
-                                    });
-                        }
-                    });
+            // The same email, type and department always give the same ID, so a repeat
+            // submission from this device is caught here without a network call
+            Complaint complaint = new Complaint(department, type, contactPerson, phone, email, description, priority, location);
+            String complaintId = ComplaintIds.idFor(email, type, department);
+            if (RecentSubmissions.getInstance(this).mightContain(complaintId)) {
+                submitIfRemoved(complaintId, complaint);
+                return;
+            }
+            submit(complaintId, complaint);
         });
     }
+
+    // Save to the outbox and return at once; ComplaintUploadWorker creates it in Firestore
+    // when the device is online, where date and updatedAt are filled in
+    private void submit(String complaintId, Complaint complaint) {
+        ComplaintOutbox.getInstance(this).enqueue(complaint);
+        RecentSubmissions.getInstance(this).add(complaintId);
+        Toast.makeText(this, "Complaint saved. It will be sent when you are online.", Toast.LENGTH_SHORT).show();
+    }
+
+    // Only a filter hit: submitting again is fine once an admin removed the complaint (or
+    // the hit was false). Offline, the cached copy decides. Without one, or on an error, it is
+    // queued anyway: the upload creates it only if absent and reports it if it was registered.
+    private void submitIfRemoved(String complaintId, Complaint complaint) {
+        FirebaseFirestore.getInstance().collection("complaints").document(complaintId).get()
+                .addOnSuccessListener(document -> {
+                    if (document.exists() && !Boolean.TRUE.equals(document.getBoolean("deleted"))) {
+                        Toast.makeText(this, "Complaint already registered.", Toast.LENGTH_SHORT).show();
+                        return;
+                    }
+                    RecentSubmissions.getInstance(this).forget(complaintId);
+                    submit(complaintId, complaint);
+                })
+                .addOnFailureListener(e -> {
+                    Log.w("RegisterComplaint", "Could not check for a registered complaint", e);
+                    submit(complaintId, complaint);
+                });
+    }
 }
@@ -2,6 +2,7 @@ package com.example.projectc;
 
 import android.content.Intent;
 import android.content.SharedPreferences;
+import android.content.pm.ApplicationInfo;
 import android.os.Build;
 import android.os.Bundle;
 import android.view.MenuItem;
@@ -53,6 +54,11 @@ public class SuperAdminDashboardActivity extends AppCompatActivity
         // Set up navigation drawer
         navigationView.setNavigationItemSelectedListener(this);
 
+        // The PDF backend switch is only offered in debug builds
+        MenuItem compactPdfItem = navigationView.getMenu().findItem(R.id.nav_compact_pdf);
+        compactPdfItem.setVisible((getApplicationInfo().flags & ApplicationInfo.FLAG_DEBUGGABLE) != 0);
+        compactPdfItem.setChecked(PdfGenerator.getBackend(this) == PdfGenerator.Backend.COMPACT);
+
         // Set user email in header
         sharedPreferences = getSharedPreferences("UserSession", MODE_PRIVATE);
         String userEmail = sharedPreferences.getString("userEmail", "superadmin@example.com");
@@ -78,6 +84,11 @@ public class SuperAdminDashboardActivity extends AppCompatActivity
             startActivity(new Intent(this, ViewComplaintsActivity.class));
         } else if (id == R.id.nav_users) {
             startActivity(new Intent(this, ManageUsersActivity.class));
+        } else if (id == R.id.nav_compact_pdf) {
+            boolean compact = !item.isChecked();
+            item.setChecked(compact);
+            PdfGenerator.setBackend(this, compact ? PdfGenerator.Backend.COMPACT : PdfGenerator.Backend.PDF_DOCUMENT);
+            return true; // Keep the drawer open to show the new state
         } else if (id == R.id.nav_logout) {
             logoutUser();
         }
@@ -0,0 +1,140 @@
+package com.example.projectc;
+
+import android.util.Log;
+
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QueryDocumentSnapshot;
+import com.google.firebase.firestore.QuerySnapshot;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Loads registered clients ordered by name, one page at a time, using limit() and
+ * startAfter() cursors. Also runs server-side name-prefix searches over the same set.
+ */
+public class UserPager {
+
+    public interface Callback {
+        void onPageLoaded(List<User> page);
+
+        void onError(Exception e);
+    }
+
+    private final Query query;
+    private final int pageSize;
+    private DocumentSnapshot lastSnapshot; // Cursor: last document of the previous page
+    private boolean loading = false;
+    private boolean exhausted = false;
+
+    public UserPager(FirebaseFirestore db, int pageSize) {
+        this.query = clients(db).orderBy("name");
+        this.pageSize = pageSize;
+    }
+
+    // Admins and super admins are kept in their own collections; every registration in
+    // "users" is a client, so an equality filter on role replaces client-side exclusion.
+    // Requires a composite index on (role ASC, name ASC).
+    private static Query clients(FirebaseFirestore db) {
+        return db.collection("users").whereEqualTo("role", "client");
+    }
+
+    /**
+     * Fetch the next page. Calls made while a page is already loading, or after the last
+     * page has been reached, are ignored.
+     */
+    public void loadNextPage(Callback callback) {
+        if (loading || exhausted) {
+            return;
+        }
+        loading = true;
+
+        Query pageQuery = query.limit(pageSize);
+        if (lastSnapshot != null) {
+            pageQuery = pageQuery.startAfter(lastSnapshot);
+        }
+
+        pageQuery.get()
+                .addOnSuccessListener(snapshots -> {
+                    loading = false;
+                    // A short page means there is nothing left to fetch
+                    if (snapshots.size() < pageSize) {
+                        exhausted = true;
+                    }
+                    if (!snapshots.isEmpty()) {
+                        lastSnapshot = snapshots.getDocuments().get(snapshots.size() - 1);
+                    }
+                    callback.onPageLoaded(readUsers(snapshots));
+                })
+                .addOnFailureListener(e -> {
+                    loading = false;
+                    Log.e("UserPager", "Error loading page", e);
+                    callback.onError(e);
+                });
+    }
+
+    /**
+     * Clients whose name starts with the prefix, searched on the server. Names are stored
+     * as typed, so the prefix is also tried in title case ("asha r" finds "Asha Rao").
+     */
+    public void searchByName(String prefix, int limit, Callback callback) {
+        List<String> variants = new ArrayList<>();
+        variants.add(prefix);
+        String titleCase = titleCase(prefix);
+        if (!titleCase.equals(prefix)) {
+            variants.add(titleCase);
+        }
+
+        List<User> results = new ArrayList<>();
+        int[] remaining = {variants.size()};
+        boolean[] failed = {false};
+        for (String variant : variants) {
+            // U+F8FF sorts after nearly every other character, closing the prefix range
+            query.startAt(variant).endAt(variant + "\uf8ff").limit(limit).get()
+                    .addOnSuccessListener(snapshots -> {
+                        results.addAll(readUsers(snapshots));
+                        if (--remaining[0] == 0 && !failed[0]) {
+                            callback.onPageLoaded(results);
+                        }
+                    })
+                    .addOnFailureListener(e -> {
+                        remaining[0]--;
+                        if (!failed[0]) {
+                            failed[0] = true;
+                            Log.e("UserPager", "Error searching users", e);
+                            callback.onError(e);
+                        }
+                    });
+        }
+    }
+
+    public boolean isLoading() {
+        return loading;
+    }
+
+    public boolean hasMore() {
+        return !exhausted;
+    }
+
+    private static List<User> readUsers(QuerySnapshot snapshots) {
+        List<User> users = new ArrayList<>(snapshots.size());
+        for (QueryDocumentSnapshot document : snapshots) {
+            users.add(new User(document.getId(), document.getString("name"), document.getString("email"),
+                    document.getString("phone"), document.getString("role"), document.getString("status")));
+        }
+        return users;
+    }
+
+    private static String titleCase(String text) {
+        StringBuilder result = new StringBuilder(text.length());
+        boolean startOfWord = true;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            result.append(startOfWord ? Character.toUpperCase(c) : Character.toLowerCase(c));
+            startOfWord = Character.isWhitespace(c);
+        }
+        return result.toString();
+    }
+}
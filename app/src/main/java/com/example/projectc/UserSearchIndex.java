@@ -0,0 +1,172 @@
+package com.example.projectc;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Search over a list of users by name, email or phone, built once when the users load.
+ *
+ * Users whose name (or any word of it), email or phone starts with the query come first;
+ * users that merely contain it somewhere follow. Prefixes are found by binary search in a
+ * sorted key array, substrings through an {@link NgramIndex}. Phone numbers are compared
+ * by their digits only, so "98765 43210" finds "+91-9876543210".
+ */
+public class UserSearchIndex {
+
+    private static final char FIELD_SEPARATOR = '\u0001';
+    private static final Pattern PHONE_LIKE = Pattern.compile("[\\d\\s()+\\-]+");
+
+    private final List<User> users;
+    private final Map<String, Integer> positionById = new HashMap<>();
+    private final String[] prefixKeys; // Sorted normalized keys
+    private final int[] prefixPositions; // User position of each key
+    private final NgramIndex substrings = new NgramIndex();
+    private final Set<String> removedIds = new HashSet<>();
+
+    public UserSearchIndex(List<User> users) {
+        this.users = new ArrayList<>(users);
+
+        final List<String> keys = new ArrayList<>();
+        List<Integer> positions = new ArrayList<>();
+        for (int position = 0; position < this.users.size(); position++) {
+            User user = this.users.get(position);
+            positionById.put(user.getId(), position);
+
+            String name = normalize(user.getName());
+            String email = normalize(user.getEmail());
+            String phone = digitsOf(user.getPhone());
+
+            List<String> userKeys = new ArrayList<>();
+            userKeys.add(name);
+            for (String word : name.split(" ")) {
+                if (!word.isEmpty() && !word.equals(name)) {
+                    userKeys.add(word);
+                }
+            }
+            userKeys.add(email);
+            userKeys.add(phone);
+            for (String key : userKeys) {
+                if (!key.isEmpty()) {
+                    keys.add(key);
+                    positions.add(position);
+                }
+            }
+
+            substrings.put(user.getId(), name + FIELD_SEPARATOR + email + FIELD_SEPARATOR + phone
+                    + FIELD_SEPARATOR + normalize(user.getPhone()));
+        }
+
+        Integer[] order = new Integer[keys.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer a, Integer b) {
+                return keys.get(a).compareTo(keys.get(b));
+            }
+        });
+        prefixKeys = new String[order.length];
+        prefixPositions = new int[order.length];
+        for (int i = 0; i < order.length; i++) {
+            prefixKeys[i] = keys.get(order[i]);
+            prefixPositions[i] = positions.get(order[i]);
+        }
+    }
+
+    /**
+     * Leave the user out of future results, e.g. after it was deleted.
+     */
+    public void remove(User user) {
+        removedIds.add(user.getId());
+    }
+
+    /**
+     * Users matching the query: prefix matches first, then substring matches, each group
+     * in the order the users were given.
+     */
+    public List<User> search(String query) {
+        String normalized = normalize(query);
+        if (PHONE_LIKE.matcher(normalized).matches()) {
+            String digits = digitsOf(normalized);
+            if (!digits.isEmpty()) {
+                normalized = digits;
+            }
+        }
+        if (normalized.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Set<Integer> prefixMatches = new HashSet<>();
+        for (int i = lowerBound(normalized); i < prefixKeys.length && prefixKeys[i].startsWith(normalized); i++) {
+            prefixMatches.add(prefixPositions[i]);
+        }
+        List<Integer> otherMatches = new ArrayList<>();
+        for (String id : substrings.search(normalized)) {
+            int position = positionById.get(id);
+            if (!prefixMatches.contains(position)) {
+                otherMatches.add(position);
+            }
+        }
+
+        List<Integer> first = new ArrayList<>(prefixMatches);
+        Collections.sort(first);
+        Collections.sort(otherMatches);
+        List<User> results = new ArrayList<>(first.size() + otherMatches.size());
+        addUsers(results, first);
+        addUsers(results, otherMatches);
+        return results;
+    }
+
+    private void addUsers(List<User> results, List<Integer> positions) {
+        for (int position : positions) {
+            User user = users.get(position);
+            if (!removedIds.contains(user.getId())) {
+                results.add(user);
+            }
+        }
+    }
+
+    // First key >= the query
+    private int lowerBound(String query) {
+        int low = 0;
+        int high = prefixKeys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (prefixKeys[mid].compareTo(query) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // Lowercase, trimmed, runs of spaces collapsed; null becomes ""
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    private static String digitsOf(String value) {
+        if (value == null) {
+            return "";
+        }
+        StringBuilder digits = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits.append(c);
+            }
+        }
+        return digits.toString();
+    }
+}
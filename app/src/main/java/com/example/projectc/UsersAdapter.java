@@ -14,19 +14,58 @@ import androidx.recyclerview.widget.RecyclerView;
 import com.google.firebase.firestore.FirebaseFirestore;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 public class UsersAdapter extends RecyclerView.Adapter<UsersAdapter.UserViewHolder> {
-    private List<User> userList; // Current list displayed in RecyclerView
-    private List<User> originalList; // Full list used for filtering
+    private List<User> userList = new ArrayList<>(); // Current list displayed in RecyclerView
+    private List<User> originalList = new ArrayList<>(); // All users loaded so far, used for filtering
+    private UserSearchIndex searchIndex; // Index over originalList, rebuilt after new pages arrive
+    private String currentQuery = "";
     private FirebaseFirestore db;
 
-    public UsersAdapter(List<User> userList, FirebaseFirestore db) {
-        this.userList = new ArrayList<>(userList); // Copy to avoid affecting originalList
-        this.originalList = new ArrayList<>(userList); // Maintain the full list for filtering
+    public UsersAdapter(FirebaseFirestore db) {
         this.db = db;
     }
 
+    /**
+     * Append a page of users. They are shown right away unless a search is active.
+     */
+    public void addUsers(List<User> page) {
+        originalList.addAll(page);
+        searchIndex = null;
+        if (currentQuery.isEmpty()) {
+            int start = userList.size();
+            userList.addAll(page);
+            notifyItemRangeInserted(start, page.size());
+        }
+    }
+
+    /**
+     * Add users found on the server for the query, skipping those already shown.
+     */
+    public void addSearchResults(String query, List<User> results) {
+        if (!query.equals(currentQuery)) {
+            return; // Answer to an older query
+        }
+        Set<String> shown = new HashSet<>();
+        for (User user : userList) {
+            shown.add(user.getId());
+        }
+        int start = userList.size();
+        for (User user : results) {
+            if (shown.add(user.getId())) {
+                userList.add(user);
+            }
+        }
+        notifyItemRangeInserted(start, userList.size() - start);
+    }
+
+    public boolean isShowingAll() {
+        return currentQuery.isEmpty();
+    }
+
     @NonNull
     @Override
     public UserViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
@@ -47,9 +86,15 @@ public class UsersAdapter extends RecyclerView.Adapter<UsersAdapter.UserViewHold
                     .delete()
                     .addOnSuccessListener(aVoid -> {
                         Toast.makeText(view.getContext(), "User removed!", Toast.LENGTH_SHORT).show();
-                        userList.remove(position);
+                        int index = userList.indexOf(user); // The list may have changed since binding
+                        if (index >= 0) {
+                            userList.remove(index);
+                            notifyItemRemoved(index);
+                        }
                         originalList.remove(user); // Also remove from the original list
-                        notifyItemRemoved(position);
+                        if (searchIndex != null) {
+                            searchIndex.remove(user);
+                        }
                     })
                     .addOnFailureListener(e -> {
                         Toast.makeText(view.getContext(), "Failed to remove user", Toast.LENGTH_SHORT).show();
@@ -63,18 +108,16 @@ public class UsersAdapter extends RecyclerView.Adapter<UsersAdapter.UserViewHold
     }
 
     public void filterList(String query) {
-        if (TextUtils.isEmpty(query)) {
+        currentQuery = query.trim();
+        if (TextUtils.isEmpty(currentQuery)) {
             // Reset to the original list if the query is empty
             userList = new ArrayList<>(originalList);
         } else {
-            // Filter the list based on the query
-            List<User> filteredList = new ArrayList<>();
-            for (User user : originalList) {
-                if (user.getName().toLowerCase().contains(query.toLowerCase())) {
-                    filteredList.add(user);
-                }
+            // Name, email or phone among the loaded users; prefix matches first
+            if (searchIndex == null) {
+                searchIndex = new UserSearchIndex(originalList);
             }
-            userList = filteredList;
+            userList = searchIndex.search(currentQuery);
         }
         notifyDataSetChanged();
     }
@@ -0,0 +1,60 @@
+package com.example.projectc;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class BloomFilterTest {
+
+    @Test
+    public void neverMissesAnAddedValue() {
+        BloomFilter filter = new BloomFilter(8192, 7);
+        for (int i = 0; i < 500; i++) {
+            filter.put("complaint-" + i);
+        }
+        for (int i = 0; i < 500; i++) {
+            assertTrue(filter.mightContain("complaint-" + i));
+        }
+    }
+
+    @Test
+    public void falsePositivesStayRare() {
+        BloomFilter filter = new BloomFilter(8192, 7);
+        for (int i = 0; i < 500; i++) {
+            filter.put("complaint-" + i);
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 10000; i++) {
+            if (filter.mightContain("other-" + i)) {
+                falsePositives++;
+            }
+        }
+        // About 0.1% expected at this load; allow ten times that
+        assertTrue("false positives: " + falsePositives, falsePositives < 100);
+    }
+
+    @Test
+    public void emptyAndClearedFiltersContainNothing() {
+        BloomFilter filter = new BloomFilter(1024, 5);
+        assertFalse(filter.mightContain("a"));
+
+        filter.put("a");
+        filter.clear();
+        assertFalse(filter.mightContain("a"));
+    }
+
+    @Test
+    public void survivesARoundTripThroughBytes() {
+        BloomFilter filter = new BloomFilter(1000, 7); // Rounded up to whole longs
+        filter.put("a");
+        filter.put("b");
+
+        byte[] bytes = filter.toBytes();
+        assertEquals(1024 / 8, bytes.length);
+        BloomFilter restored = BloomFilter.fromBytes(bytes, 7);
+        assertTrue(restored.mightContain("a"));
+        assertTrue(restored.mightContain("b"));
+        assertArrayEquals(bytes, restored.toBytes());
+    }
+}
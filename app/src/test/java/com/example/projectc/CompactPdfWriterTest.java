@@ -0,0 +1,150 @@
+package com.example.projectc;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.Charset;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.Inflater;
+
+import static org.junit.Assert.*;
+
+public class CompactPdfWriterTest {
+
+    private static final Charset LATIN_1 = Charset.forName("ISO-8859-1");
+
+    private static String num(float value) {
+        return CompactPdfWriter.appendNum(new StringBuilder(), value).toString();
+    }
+
+    private static String string(String text) {
+        return CompactPdfWriter.appendString(new StringBuilder(), text).toString();
+    }
+
+    @Test
+    public void numbersHaveAtMostThreeDecimalsAndNoExponent() {
+        assertEquals("0", num(0f));
+        assertEquals("842", num(842f));
+        assertEquals("-1.5", num(-1.5f));
+        assertEquals("12.345", num(12.345f));
+        assertEquals("0.333", num(1f / 3));
+        assertEquals("0.05", num(0.05f));
+        assertEquals("0.001", num(0.0005f));
+        assertEquals("0", num(0.0004f));
+        assertEquals("0", num(-0.0004f)); // Not "-0"
+        assertEquals("10000000", num(1e7f));
+    }
+
+    @Test
+    public void stringsEscapeDelimitersAndNonAscii() {
+        assertEquals("(Room 12)", string("Room 12"));
+        assertEquals("(a\\(b\\)c\\\\d)", string("a(b)c\\d"));
+        assertEquals("(caf\\351)", string("caf\u00E9"));
+        assertEquals("(\\200 5 \\227 ok\\205)", string("\u20AC 5 \u2014 ok\u2026"));
+        assertEquals("(a b)", string("a\tb"));
+        assertEquals("(? ?)", string("\u0928 \u4E2D")); // Devanagari and CJK have no WinAnsi code
+    }
+
+    @Test
+    public void canEncodeOnlyWinAnsiText() {
+        assertTrue(CompactPdfWriter.canEncode(null));
+        assertTrue(CompactPdfWriter.canEncode("Fan \u2013 \u201Cnot working\u201D, caf\u00E9 \u20AC5"));
+        assertFalse(CompactPdfWriter.canEncode("\u092A\u0902\u0916\u093E"));
+        assertTrue(CompactPdfWriter.canEncode("Wrapped\r\ninto lines\n")); // Never drawn as characters
+    }
+
+    @Test
+    public void crossReferenceOffsetsPointAtTheirObjects() throws Exception {
+        String pdf = write(2);
+
+        Matcher startxref = Pattern.compile("startxref\n(\\d+)\n%%EOF\n$").matcher(pdf);
+        assertTrue(startxref.find());
+        int xref = Integer.parseInt(startxref.group(1));
+        assertTrue(pdf.startsWith("xref\n0 10\n0000000000 65535 f \n", xref));
+
+        String[] entries = pdf.substring(xref).split("\n");
+        for (int object = 1; object < 10; object++) {
+            String entry = entries[2 + object];
+            assertEquals(20, entry.length() + 1); // Each entry is exactly 20 bytes with its newline
+            assertTrue(entry, entry.endsWith(" 00000 n "));
+            int offset = Integer.parseInt(entry.substring(0, 10));
+            assertTrue("object " + object, pdf.startsWith(object + " 0 obj\n", offset));
+        }
+        assertTrue(pdf.contains("trailer\n<< /Size 10 /Root 1 0 R >>"));
+    }
+
+    @Test
+    public void writtenPagesParseBack() throws Exception {
+        String pdf = write(2);
+
+        assertTrue(pdf.startsWith("%PDF-1.4\n"));
+        assertTrue(pdf.contains("2 0 obj\n<< /Type /Pages /Count 2 /Kids [ 6 0 R 8 0 R ] >>"));
+        assertTrue(pdf.contains("6 0 obj\n<< /Type /Page /Parent 2 0 R /MediaBox [0 0 595 842] /Resources 3 0 R /Contents 7 0 R >>"));
+
+        Matcher stream = Pattern.compile("(\\d+) 0 obj\n<< /Filter /FlateDecode /Length (\\d+) >>\nstream\n").matcher(pdf);
+        int streams = 0;
+        while (stream.find()) {
+            int length = Integer.parseInt(stream.group(2));
+            byte[] compressed = pdf.substring(stream.end(), stream.end() + length).getBytes(LATIN_1);
+            assertTrue(pdf.startsWith("\nendstream\nendobj\n", stream.end() + length));
+            assertEquals("", inflate(compressed)); // Nothing was drawn
+            streams++;
+        }
+        assertEquals(2, streams);
+    }
+
+    @Test
+    public void streamedPagesAreWrittenAsTheyFinish() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (CompactPdfWriter writer = new CompactPdfWriter(out)) {
+            writer.startPage(1);
+            assertEquals(0, out.size());
+            writer.finishPage();
+            int afterFirst = out.size();
+            assertTrue(new String(out.toByteArray(), LATIN_1).contains("7 0 obj\n<< /Filter /FlateDecode"));
+            writer.startPage(2);
+            writer.finishPage();
+            assertTrue(out.size() > afterFirst);
+            writer.writeTo(out);
+        }
+
+        assertEquals(write(2), new String(out.toByteArray(), LATIN_1)); // The same file as when held
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void streamedPagesCannotBeWrittenElsewhere() throws Exception {
+        CompactPdfWriter writer = new CompactPdfWriter(new ByteArrayOutputStream());
+        writer.writeTo(new ByteArrayOutputStream());
+    }
+
+    // The file as Latin-1 text, so that string offsets are byte offsets
+    private static String write(int pageCount) throws Exception {
+        CompactPdfWriter writer = new CompactPdfWriter();
+        for (int page = 1; page <= pageCount; page++) {
+            writer.startPage(page);
+            writer.finishPage();
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writer.writeTo(out);
+        writer.close();
+        return new String(out.toByteArray(), LATIN_1);
+    }
+
+    private static String inflate(byte[] compressed) throws Exception {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[1024];
+            while (!inflater.finished()) {
+                int read = inflater.inflate(buffer);
+                if (read == 0 && !inflater.finished() && inflater.needsInput()) fail("truncated stream");
+                out.write(buffer, 0, read);
+            }
+            return new String(out.toByteArray(), LATIN_1);
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.projectc;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class ComplaintDateIndexTest {
+
+    @Test
+    public void rangesIncludeTheStartAndExcludeTheEnd() {
+        ComplaintDateIndex index = new ComplaintDateIndex();
+        index.put("a", new Date(100));
+        index.put("b", new Date(200));
+        index.put("c", new Date(300));
+
+        assertEquals(Arrays.asList("b", "a"), index.idsBetween(100, 300));
+        assertEquals(2, index.count(100, 300));
+        assertEquals(Collections.singletonList("c"), index.idsBetween(300, Long.MAX_VALUE));
+        assertTrue(index.idsBetween(301, 400).isEmpty());
+        assertEquals(0, index.count(400, 100));
+    }
+
+    @Test
+    public void pagesArrivingNewestFirstStayOrdered() {
+        ComplaintDateIndex index = new ComplaintDateIndex();
+        for (int i = 1000; i > 0; i--) {
+            index.put("c" + i, new Date(i));
+        }
+
+        assertEquals(1000, index.size());
+        assertEquals(Arrays.asList("c12", "c11", "c10"), index.idsBetween(10, 13));
+    }
+
+    @Test
+    public void newerComplaintsAreInsertedInPlace() {
+        ComplaintDateIndex index = new ComplaintDateIndex();
+        index.put("old", new Date(100));
+        index.put("new", new Date(500));
+        index.put("middle", new Date(300));
+
+        assertEquals(Arrays.asList("new", "middle", "old"), index.idsBetween(0, 1000));
+    }
+
+    @Test
+    public void moveRemoveAndUndated() {
+        ComplaintDateIndex index = new ComplaintDateIndex();
+        index.put("a", new Date(100));
+        index.put("b", new Date(200));
+        index.put("a", new Date(300)); // Date edited
+        index.put("b", new Date(200)); // Unchanged
+        index.put("c", null); // Not stamped by the server yet
+
+        assertEquals(Arrays.asList("a", "b"), index.idsBetween(0, 1000));
+        assertEquals(2, index.size());
+
+        index.remove("a");
+        index.remove("missing");
+        assertEquals(Collections.singletonList("b"), index.idsBetween(0, 1000));
+        assertEquals(1, index.size());
+
+        index.put("b", null);
+        assertTrue(index.idsBetween(0, 1000).isEmpty());
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    public void clearEmptiesTheIndex() {
+        ComplaintDateIndex index = new ComplaintDateIndex();
+        index.put("a", new Date(100));
+        index.clear();
+
+        assertEquals(0, index.size());
+        assertTrue(index.idsBetween(Long.MIN_VALUE, Long.MAX_VALUE).isEmpty());
+        index.put("a", new Date(100));
+        assertEquals(Collections.singletonList("a"), index.idsBetween(0, 200));
+    }
+
+    @Test
+    public void matchesAPlainMapUnderRandomEdits() {
+        Random random = new Random(42);
+        ComplaintDateIndex index = new ComplaintDateIndex();
+        Map<String, Long> expected = new HashMap<>();
+
+        for (int step = 0; step < 5000; step++) {
+            String id = "c" + random.nextInt(300);
+            if (random.nextInt(3) == 0) {
+                index.remove(id);
+                expected.remove(id);
+            } else {
+                long time = random.nextInt(1000);
+                index.put(id, new Date(time));
+                expected.put(id, time);
+            }
+
+            long from = random.nextInt(1000);
+            long to = from + random.nextInt(300);
+            List<String> found = index.idsBetween(from, to);
+            List<String> inRange = new ArrayList<>();
+            for (Map.Entry<String, Long> entry : expected.entrySet()) {
+                if (entry.getValue() >= from && entry.getValue() < to) {
+                    inRange.add(entry.getKey());
+                }
+            }
+            assertEquals(inRange.size(), found.size());
+            assertTrue(found.containsAll(inRange));
+            for (int i = 1; i < found.size(); i++) {
+                assertTrue("newest first", expected.get(found.get(i - 1)) >= expected.get(found.get(i)));
+            }
+            assertTrue("count is an upper bound", index.count(from, to) >= inRange.size());
+            assertEquals(expected.size(), index.size());
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.projectc;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.Date;
+import java.util.GregorianCalendar;
+
+import static org.junit.Assert.*;
+
+public class ComplaintQueryTest {
+
+    private static long localTime(int year, int month, int day) {
+        return new GregorianCalendar(year, month - 1, day).getTimeInMillis();
+    }
+
+    private static ComplaintSearchIndex.Entry entry(String status, String department, String description, long time) {
+        Complaint complaint = new Complaint(department, "Electrical", "Asha", "9876543210", "asha@example.com",
+                description, "High", "Main building");
+        complaint.setId("id");
+        complaint.setStatus(status);
+        complaint.setDate(new Date(time));
+        return new ComplaintSearchIndex.Entry(complaint);
+    }
+
+    @Test
+    public void fieldAndFreeTextClausesAreAllRequired() {
+        ComplaintQuery query = ComplaintQuery.parse("status:pending FAN");
+
+        assertTrue(query.matches(entry("Pending", "Civil", "Fan not working", 0)));
+        assertFalse(query.matches(entry("Resolved", "Civil", "Fan not working", 0)));
+        assertFalse(query.matches(entry("Pending", "Civil", "Light flickers", 0)));
+        assertEquals(Collections.singletonList("fan"), query.terms());
+    }
+
+    @Test
+    public void quotedValuesKeepTheirSpaces() {
+        ComplaintQuery query = ComplaintQuery.parse("dept:\"civil engineering\" \"not working\"");
+
+        assertTrue(query.matches(entry("New", "Civil Engineering", "Fan not working", 0)));
+        assertFalse(query.matches(entry("New", "Civil", "Fan not working", 0)));
+        assertEquals(Collections.singletonList("not working"), query.terms());
+    }
+
+    @Test
+    public void unknownFieldsAndIncompleteClausesAreText() {
+        assertEquals(Collections.singletonList("room:12"), ComplaintQuery.parse("room:12").terms());
+        assertTrue(ComplaintQuery.parse("status:").isEmpty());
+        assertTrue(ComplaintQuery.parse("   ").isEmpty());
+    }
+
+    @Test
+    public void datesCoverADayMonthOrYear() {
+        ComplaintQuery day = ComplaintQuery.parse("date:2024-05-01");
+        assertEquals(localTime(2024, 5, 1), day.dateFrom());
+        assertEquals(localTime(2024, 5, 2), day.dateTo());
+
+        ComplaintQuery month = ComplaintQuery.parse("date:2024-12");
+        assertEquals(localTime(2024, 12, 1), month.dateFrom());
+        assertEquals(localTime(2025, 1, 1), month.dateTo());
+
+        ComplaintQuery year = ComplaintQuery.parse("date:2024");
+        assertEquals(localTime(2024, 1, 1), year.dateFrom());
+        assertEquals(localTime(2025, 1, 1), year.dateTo());
+    }
+
+    @Test
+    public void rangesIncludeBothEndsAndMayBeOpen() {
+        ComplaintQuery closed = ComplaintQuery.parse("date:2024-05-01..2024-05-31");
+        assertEquals(localTime(2024, 5, 1), closed.dateFrom());
+        assertEquals(localTime(2024, 6, 1), closed.dateTo());
+
+        ComplaintQuery from = ComplaintQuery.parse("date:2024-05..");
+        assertEquals(localTime(2024, 5, 1), from.dateFrom());
+        assertEquals(Long.MAX_VALUE, from.dateTo());
+
+        ComplaintQuery to = ComplaintQuery.parse("date:..2024");
+        assertEquals(Long.MIN_VALUE, to.dateFrom());
+        assertEquals(localTime(2025, 1, 1), to.dateTo());
+    }
+
+    @Test
+    public void dateClausesIntersect() {
+        ComplaintQuery query = ComplaintQuery.parse("date:2024 date:2024-03..2025-06");
+
+        assertEquals(localTime(2024, 3, 1), query.dateFrom());
+        assertEquals(localTime(2025, 1, 1), query.dateTo());
+        assertTrue(query.matches(entry("New", "Civil", "Fan", localTime(2024, 7, 4))));
+        assertFalse(query.matches(entry("New", "Civil", "Fan", localTime(2024, 2, 28))));
+    }
+
+    @Test
+    public void bareDatesAreDateClauses() {
+        ComplaintQuery year = ComplaintQuery.parse("2024");
+        assertTrue(year.terms().isEmpty());
+        assertEquals(localTime(2024, 1, 1), year.dateFrom());
+        assertEquals(localTime(2025, 1, 1), year.dateTo());
+
+        ComplaintQuery month = ComplaintQuery.parse("05/2024");
+        assertEquals(localTime(2024, 5, 1), month.dateFrom());
+        assertEquals(localTime(2024, 6, 1), month.dateTo());
+
+        ComplaintQuery day = ComplaintQuery.parse("1/5/2024");
+        assertEquals(localTime(2024, 5, 1), day.dateFrom());
+        assertEquals(localTime(2024, 5, 2), day.dateTo());
+
+        assertEquals(localTime(2024, 5, 1), ComplaintQuery.parse("2024-05-01").dateFrom());
+    }
+
+    @Test
+    public void otherNumbersAndImpossibleDatesAreText() {
+        assertEquals(Collections.singletonList("1234"), ComplaintQuery.parse("1234").terms());
+        assertFalse(ComplaintQuery.parse("1234").hasDateRange());
+        assertEquals(Collections.singletonList("2024-02-30"), ComplaintQuery.parse("2024-02-30").terms());
+        assertEquals(Collections.singletonList("date:31/02/2024"), ComplaintQuery.parse("date:31/02/2024").terms());
+    }
+
+    @Test
+    public void recentDaysEndTodayAndIncludeIt() {
+        Calendar midnight = Calendar.getInstance();
+        midnight.set(Calendar.HOUR_OF_DAY, 0);
+        midnight.set(Calendar.MINUTE, 0);
+        midnight.set(Calendar.SECOND, 0);
+        midnight.set(Calendar.MILLISECOND, 0);
+        long today = midnight.getTimeInMillis();
+        midnight.add(Calendar.DAY_OF_MONTH, -6);
+        long weekAgo = midnight.getTimeInMillis();
+
+        assertEquals(today, ComplaintQuery.parse("date:today").dateFrom());
+        assertEquals(today, ComplaintQuery.parse("date:1d").dateFrom());
+        assertEquals(today, ComplaintQuery.parse("date:0d").dateFrom());
+        assertEquals(Long.MAX_VALUE, ComplaintQuery.parse("date:0d").dateTo());
+        assertEquals(weekAgo, ComplaintQuery.parse("date:7d").dateFrom());
+    }
+
+    @Test
+    public void narrowerQueriesImplyBroaderOnes() {
+        ComplaintQuery broad = ComplaintQuery.parse("fan");
+
+        assertTrue(ComplaintQuery.parse("fans").isNarrowerThan(broad));
+        assertTrue(ComplaintQuery.parse("description:fan status:new").isNarrowerThan(broad));
+        assertFalse(ComplaintQuery.parse("fa").isNarrowerThan(broad));
+        assertTrue(ComplaintQuery.parse("date:2024-05").isNarrowerThan(ComplaintQuery.parse("2024")));
+        assertFalse(ComplaintQuery.parse("2024").isNarrowerThan(ComplaintQuery.parse("date:2024-05")));
+        assertTrue(ComplaintQuery.parse("status:pending").isNarrowerThan(ComplaintQuery.parse("status:pend")));
+        for (String text : Arrays.asList("fan", "status:new date:7d", "\"not working\"")) {
+            assertTrue(ComplaintQuery.parse(text).isNarrowerThan(ComplaintQuery.parse(text)));
+        }
+    }
+}
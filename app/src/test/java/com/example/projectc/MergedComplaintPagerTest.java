@@ -0,0 +1,238 @@
+package com.example.projectc;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class MergedComplaintPagerTest {
+
+    // Pages through a fixed date-descending list; answers at once unless deferred
+    private static class FakeSource implements ComplaintPageSource {
+        final List<Complaint> complaints;
+        final int pageSize;
+        int next = 0;
+        int requests = 0;
+        boolean loading = false;
+        boolean deferred = false;
+        int failAt = -1; // Request number that fails
+        Callback pending;
+
+        FakeSource(int pageSize, long... times) {
+            this.pageSize = pageSize;
+            this.complaints = new ArrayList<>();
+            for (long time : times) {
+                complaints.add(complaint("t" + time, time));
+            }
+        }
+
+        @Override
+        public void loadNextPage(Callback callback) {
+            if (loading || !hasMore()) {
+                return;
+            }
+            loading = true;
+            requests++;
+            if (deferred) {
+                pending = callback;
+            } else {
+                answer(callback);
+            }
+        }
+
+        void release() {
+            Callback callback = pending;
+            pending = null;
+            answer(callback);
+        }
+
+        private void answer(Callback callback) {
+            loading = false;
+            if (requests == failAt) {
+                callback.onError(new Exception("offline"));
+                return;
+            }
+            int end = Math.min(next + pageSize, complaints.size());
+            List<Complaint> page = new ArrayList<>(complaints.subList(next, end));
+            next = end;
+            callback.onPageLoaded(page);
+        }
+
+        @Override
+        public boolean isLoading() {
+            return loading;
+        }
+
+        @Override
+        public boolean hasMore() {
+            return next < complaints.size();
+        }
+
+        @Override
+        public void reset() {
+            next = 0;
+            loading = false;
+        }
+    }
+
+    private static class Recorder implements ComplaintPageSource.Callback {
+        final List<List<Complaint>> pages = new ArrayList<>();
+        final List<Exception> errors = new ArrayList<>();
+
+        @Override
+        public void onPageLoaded(List<Complaint> page) {
+            pages.add(page);
+        }
+
+        @Override
+        public void onError(Exception e) {
+            errors.add(e);
+        }
+
+        List<Long> lastPageTimes() {
+            return times(pages.get(pages.size() - 1));
+        }
+    }
+
+    private static Complaint complaint(String id, long time) {
+        Complaint complaint = new Complaint();
+        complaint.setId(id);
+        complaint.setDate(new Date(time));
+        return complaint;
+    }
+
+    private static List<Long> times(List<Complaint> complaints) {
+        List<Long> times = new ArrayList<>();
+        for (Complaint complaint : complaints) {
+            times.add(complaint.getDate().getTime());
+        }
+        return times;
+    }
+
+    @Test
+    public void mergesSourcesNewestFirstAcrossPages() {
+        FakeSource a = new FakeSource(2, 90, 70, 50, 10);
+        FakeSource b = new FakeSource(2, 80, 60, 40, 30, 20);
+        MergedComplaintPager pager = new MergedComplaintPager(Arrays.asList(a, b), 4);
+        Recorder recorder = new Recorder();
+
+        pager.loadNextPage(recorder);
+        assertEquals(Arrays.asList(90L, 80L, 70L, 60L), recorder.lastPageTimes());
+        pager.loadNextPage(recorder);
+        assertEquals(Arrays.asList(50L, 40L, 30L, 20L), recorder.lastPageTimes());
+        assertTrue(pager.hasMore());
+        pager.loadNextPage(recorder);
+        assertEquals(Arrays.asList(10L), recorder.lastPageTimes());
+
+        assertFalse(pager.hasMore());
+        pager.loadNextPage(recorder); // Ignored once exhausted
+        assertEquals(3, recorder.pages.size());
+        assertTrue(recorder.errors.isEmpty());
+    }
+
+    @Test
+    public void sourcesAreOnlyReadAsTheMergeReachesThem() {
+        FakeSource recent = new FakeSource(3, 100, 99, 98, 97, 96, 95);
+        FakeSource old = new FakeSource(3, 10, 9, 8, 7, 6, 5);
+        MergedComplaintPager pager = new MergedComplaintPager(Arrays.asList(recent, old), 3);
+        Recorder recorder = new Recorder();
+
+        pager.loadNextPage(recorder);
+        pager.loadNextPage(recorder);
+        assertEquals(Arrays.asList(97L, 96L, 95L), recorder.lastPageTimes());
+        assertEquals(1, old.requests); // Its first page was enough to know it comes later
+    }
+
+    @Test
+    public void waitsForEveryStarvingSource() {
+        FakeSource a = new FakeSource(2, 40, 20);
+        FakeSource b = new FakeSource(2, 30, 10);
+        a.deferred = true;
+        b.deferred = true;
+        MergedComplaintPager pager = new MergedComplaintPager(Arrays.asList(a, b), 3);
+        Recorder recorder = new Recorder();
+
+        pager.loadNextPage(recorder);
+        assertTrue(pager.isLoading());
+        a.release();
+        assertTrue("settles only once both have answered", recorder.pages.isEmpty());
+        pager.loadNextPage(recorder); // Ignored while loading
+        assertEquals(1, a.requests);
+        b.release();
+
+        assertEquals(Arrays.asList(40L, 30L, 20L), recorder.lastPageTimes());
+        assertFalse(pager.isLoading());
+    }
+
+    @Test
+    public void anErrorKeepsWhatWasMergedForTheRetry() {
+        FakeSource a = new FakeSource(1, 50, 30, 10);
+        FakeSource b = new FakeSource(1, 40, 20);
+        a.failAt = 3; // After 50 and 40 and 30 have been merged into the page
+        MergedComplaintPager pager = new MergedComplaintPager(Arrays.asList(a, b), 4);
+        Recorder recorder = new Recorder();
+
+        pager.loadNextPage(recorder);
+        assertEquals(1, recorder.errors.size());
+        assertTrue(recorder.pages.isEmpty());
+        assertFalse(pager.isLoading());
+
+        pager.loadNextPage(recorder);
+        assertEquals(Arrays.asList(50L, 40L, 30L, 20L), recorder.lastPageTimes());
+        pager.loadNextPage(recorder);
+        assertEquals(Arrays.asList(10L), recorder.lastPageTimes());
+        assertFalse(pager.hasMore());
+    }
+
+    @Test
+    public void anErrorWaitsForTheOtherSources() {
+        FakeSource a = new FakeSource(2, 40, 20);
+        FakeSource b = new FakeSource(2, 30, 10);
+        a.failAt = 1;
+        b.deferred = true;
+        MergedComplaintPager pager = new MergedComplaintPager(Arrays.asList(a, b), 3);
+        Recorder recorder = new Recorder();
+
+        pager.loadNextPage(recorder);
+        assertTrue(recorder.errors.isEmpty());
+        b.release();
+        assertEquals(1, recorder.errors.size());
+
+        // b's page was kept, so the retry only asks a again
+        b.deferred = false;
+        pager.loadNextPage(recorder);
+        assertEquals(1, b.requests);
+        assertEquals(Arrays.asList(40L, 30L, 20L), recorder.lastPageTimes());
+    }
+
+    @Test
+    public void resetStartsOver() {
+        FakeSource a = new FakeSource(2, 20, 10);
+        MergedComplaintPager pager = new MergedComplaintPager(Arrays.asList(a), 5);
+        Recorder recorder = new Recorder();
+
+        pager.loadNextPage(recorder);
+        assertFalse(pager.hasMore());
+        pager.reset();
+        assertTrue(pager.hasMore());
+        pager.loadNextPage(recorder);
+        assertEquals(Arrays.asList(20L, 10L), recorder.lastPageTimes());
+    }
+
+    @Test
+    public void noSourcesGiveOneEmptyPage() {
+        MergedComplaintPager pager = new MergedComplaintPager(new ArrayList<FakeSource>(), 5);
+        Recorder recorder = new Recorder();
+
+        assertTrue(pager.hasMore());
+        pager.loadNextPage(recorder);
+        assertEquals(1, recorder.pages.size());
+        assertTrue(recorder.pages.get(0).isEmpty());
+        assertFalse(pager.hasMore());
+        assertFalse(pager.isLoading());
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.projectc;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+public class NgramIndexTest {
+
+    @Test
+    public void findsSubstringsIgnoringCase() {
+        NgramIndex index = new NgramIndex();
+        index.put("a", "Fan not working in Room 12");
+        index.put("b", "Broken window");
+        index.put("c", "Ceiling FAN noisy");
+
+        assertEquals(Arrays.asList("a", "c"), index.search("fan"));
+        assertEquals(Collections.singletonList("a"), index.search("NOT WORK"));
+        assertEquals(Collections.singletonList("b"), index.search("ken win"));
+        assertTrue(index.search("projector").isEmpty());
+    }
+
+    @Test
+    public void shortQueriesScanEveryDocument() {
+        NgramIndex index = new NgramIndex();
+        index.put("a", "Room 12");
+        index.put("b", "Room 21");
+        index.put("c", "Lab");
+
+        assertEquals(Arrays.asList("a", "b"), index.search("1"));
+        assertEquals(Collections.singletonList("c"), index.search("LA"));
+    }
+
+    @Test
+    public void trigramsAloneAreNotAMatch() {
+        NgramIndex index = new NgramIndex();
+        index.put("a", "abc bcd");
+
+        // Both trigrams of "abcd" occur, but not as one substring
+        assertTrue(index.search("abcd").isEmpty());
+        assertEquals(Collections.singletonList("a"), index.search("c bc"));
+    }
+
+    @Test
+    public void putReplacesEarlierText() {
+        NgramIndex index = new NgramIndex();
+        index.put("a", "Pending");
+        index.put("a", "Resolved");
+
+        assertTrue(index.search("pending").isEmpty());
+        assertEquals(Collections.singletonList("a"), index.search("resolved"));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    public void removedDocumentsAreNotFound() {
+        NgramIndex index = new NgramIndex();
+        index.put("a", "Water leak");
+        index.put("b", "Water cooler");
+        index.remove("a");
+        index.remove("missing");
+
+        assertEquals(Collections.singletonList("b"), index.search("water"));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    public void compactingKeepsLiveDocuments() {
+        NgramIndex index = new NgramIndex();
+        for (int i = 0; i < 200; i++) {
+            index.put("k" + i, "complaint number " + i);
+        }
+        for (int i = 0; i < 150; i++) {
+            index.remove("k" + i);
+        }
+
+        assertEquals(50, index.size());
+        assertEquals(Collections.singletonList("k199"), index.search("number 199"));
+        assertTrue(index.search("number 42").isEmpty());
+        assertEquals(50, index.search("complaint").size());
+    }
+
+    @Test
+    public void estimateIsAnUpperBound() {
+        NgramIndex index = new NgramIndex();
+        index.put("a", "fan");
+        index.put("b", "fancy");
+        index.put("c", "light");
+
+        assertEquals(2, index.estimateMatches("fan"));
+        assertEquals(0, index.estimateMatches("xyz"));
+        assertEquals(3, index.estimateMatches("f")); // Too short for a trigram
+        assertTrue(index.estimateMatches("fancy") >= index.search("fancy").size());
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.projectc;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+
+import static org.junit.Assert.*;
+
+public class PdfGeneratorTest {
+
+    // Every character is one unit wide
+    private static final PdfGenerator.LineBreaker MONOSPACE =
+            (text, start, end, maxWidth) -> Math.min(end - start, (int) maxWidth);
+
+    @Test
+    public void breaksAtTheLastSpaceThatFits() {
+        assertEquals(Arrays.asList("Fan not", "working in", "room 12"),
+                PdfGenerator.wrapLines("Fan not working in room 12", MONOSPACE, 10));
+        assertEquals(Collections.singletonList("Fits"), PdfGenerator.wrapLines("Fits", MONOSPACE, 10));
+    }
+
+    @Test
+    public void wordsWiderThanALineAreSplit() {
+        assertEquals(Arrays.asList("abcd", "efgh", "ij k"),
+                PdfGenerator.wrapLines("abcdefghij k", MONOSPACE, 4));
+    }
+
+    @Test
+    public void spacesAtTheBreakAreDropped() {
+        assertEquals(Arrays.asList("one", "two"), PdfGenerator.wrapLines("one     two", MONOSPACE, 5));
+        assertEquals(Collections.singletonList("end"), PdfGenerator.wrapLines("end   ", MONOSPACE, 10));
+    }
+
+    @Test
+    public void explicitLineBreaksAndBlankLinesAreKept() {
+        assertEquals(Arrays.asList("first", "", "second"),
+                PdfGenerator.wrapLines("first\n\nsecond", MONOSPACE, 20));
+        assertEquals(Collections.singletonList("trailing"), PdfGenerator.wrapLines("trailing\n", MONOSPACE, 20));
+    }
+
+    @Test
+    public void alwaysProgressesWhenNothingFits() {
+        PdfGenerator.LineBreaker tooWide = (text, start, end, maxWidth) -> 0;
+        assertEquals(Arrays.asList("a", "b", "c"), PdfGenerator.wrapLines("abc", tooWide, 10));
+    }
+
+    @Test
+    public void missingTextHasNoLines() {
+        assertTrue(PdfGenerator.wrapLines(null, MONOSPACE, 10).isEmpty());
+        assertTrue(PdfGenerator.wrapLines("", MONOSPACE, 10).isEmpty());
+    }
+
+    @Test
+    public void multiLineComplaintsUseTheCompactBackend() {
+        Complaint complaint = new Complaint("Civil", "Electrical", "Asha", "9876543210", "asha@example.com",
+                "Fan not working.\n\nIt stopped on Monday,\r\nand the room is too hot.", "High", "Room 12");
+        complaint.setId("id");
+        complaint.setDate(new Date(0));
+
+        assertEquals(PdfGenerator.Backend.COMPACT,
+                PdfGenerator.backendFor(PdfGenerator.Backend.COMPACT, PdfGenerator.complaintData(complaint)));
+        assertEquals(PdfGenerator.Backend.PDF_DOCUMENT,
+                PdfGenerator.backendFor(PdfGenerator.Backend.PDF_DOCUMENT, PdfGenerator.complaintData(complaint)));
+
+        complaint.setRemarks("\u092A\u0902\u0916\u093E \u0920\u0940\u0915 \u0915\u0930\u0947\u0902");
+        assertEquals(PdfGenerator.Backend.PDF_DOCUMENT,
+                PdfGenerator.backendFor(PdfGenerator.Backend.COMPACT, PdfGenerator.complaintData(complaint)));
+    }
+}